@@ -0,0 +1,52 @@
+package com.teamn.crypto;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Generates phrase corpora of a given size for the benchmarks.
+ */
+class BenchmarkCorpus {
+
+    private BenchmarkCorpus() {
+    }
+
+    /**
+     * Writes a corpus of random upper case phrases to a temporary file.
+     * @param lines the number of phrases to write
+     * @return the corpus file, deleted when the JVM exits (along with its index sidecar)
+     * @throws IOException if the file cannot be written
+     */
+    static Path write(int lines) throws IOException {
+        Path corpus = Files.createTempFile("sentences", "");
+        corpus.toFile().deleteOnExit();
+        PhraseIndex.sidecarFor(corpus).toFile().deleteOnExit();
+
+        Random rand = new Random(lines);
+        try (BufferedWriter out = Files.newBufferedWriter(corpus, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < lines; i++) {
+                out.write(phrase(rand, 40 + rand.nextInt(50)));
+                out.newLine();
+            }
+        }
+        return corpus;
+    }
+
+    /**
+     * @param rand source of randomness
+     * @param length the length of the phrase
+     * @return a phrase of upper case words separated by single spaces
+     */
+    static String phrase(Random rand, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            boolean space = i > 0 && i < length - 1 && sb.charAt(i - 1) != ' ' && rand.nextInt(6) == 0;
+            sb.append(space ? ' ' : (char) ('A' + rand.nextInt(26)));
+        }
+        return sb.toString();
+    }
+}
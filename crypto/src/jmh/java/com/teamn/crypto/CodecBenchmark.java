@@ -0,0 +1,81 @@
+package com.teamn.crypto;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding a game in progress with GameCodec against Java serialization.
+ * The encoded sizes are reported as the "bytes" secondary result of each encode benchmark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    private final GameCodec codec = new GameCodec();
+    private Game game;
+    private byte[] encoded;
+    private byte[] serialized;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Size {
+        public long bytes;
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        game = new Game(new Player("bench"), "sentences");
+        game.generateCryptogram(Game.GameType.NUMBER);
+        for (String symbol : game.getCryptogram().getCypherText().subList(0, 6)) {
+            if (!symbol.equals(" ")) game.enterLetter(symbol, 'E');
+        }
+        encoded = encode();
+        serialized = serialize();
+    }
+
+    private byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        codec.write(game, new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    private byte[] serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(game);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] codecEncode(Size size) throws IOException {
+        byte[] bytes = encode();
+        size.bytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public Game codecDecode() throws IOException {
+        return codec.read(new DataInputStream(new ByteArrayInputStream(encoded)));
+    }
+
+    @Benchmark
+    public byte[] serializationEncode(Size size) throws IOException {
+        byte[] bytes = serialize();
+        size.bytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public Object serializationDecode() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return in.readObject();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.teamn.crypto;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of constructing (i.e. encrypting) cryptograms, and of the views derived from them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CryptogramBenchmark {
+
+    private PhraseRetriever phrases;
+    private Cryptogram letterCryptogram;
+
+    @Setup
+    public void setup() throws IOException {
+        phrases = new PhraseRetriever(BenchmarkCorpus.write(1000));
+        letterCryptogram = new LetterCryptogram(phrases);
+    }
+
+    @Benchmark
+    public Cryptogram letterCryptogram() {
+        return new LetterCryptogram(phrases);
+    }
+
+    @Benchmark
+    public Cryptogram numberCryptogram() {
+        return new NumberCryptogram(phrases);
+    }
+
+    @Benchmark
+    public String cypherTextToString() {
+        return letterCryptogram.toString();
+    }
+}
@@ -0,0 +1,56 @@
+package com.teamn.crypto;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the frequency views shown by SHOW_FREQUENCIES.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrequencyBenchmark {
+
+    private Cryptogram letterCryptogram;
+    private String letterCypherText;
+    private String numberCypherText;
+
+    @Setup
+    public void setup() throws IOException {
+        PhraseRetriever phrases = new PhraseRetriever(BenchmarkCorpus.write(1000));
+        letterCryptogram = new LetterCryptogram(phrases);
+        letterCypherText = String.join(" ", letterCryptogram.getCypherText());
+        numberCypherText = String.join(",", new NumberCryptogram(phrases).getCypherText());
+    }
+
+    @Benchmark
+    public double[] internalFrequencies() {
+        return FrequencyManager.getInternalFrequencies(letterCryptogram);
+    }
+
+    @Benchmark
+    public Map<String, String> internalFrequenciesForCharactersString() {
+        return FrequencyManager.getInternalFrequenciesForCharactersString(letterCypherText);
+    }
+
+    @Benchmark
+    public Map<String, String> internalFrequenciesForNumbersString() {
+        return FrequencyManager.getInternalFrequenciesForNumbersString(numberCypherText);
+    }
+
+    @Benchmark
+    public Map<String, String> englishFrequencies() {
+        return FrequencyManager.getEnglishFrequencies();
+    }
+
+    @Benchmark
+    public Map<String, Integer> cypherTextFrequencies() {
+        return letterCryptogram.getCypherTextFrequencies();
+    }
+}
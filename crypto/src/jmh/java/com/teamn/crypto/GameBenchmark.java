@@ -0,0 +1,54 @@
+package com.teamn.crypto;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the per-move game operations on the interactive path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+    private Game game;
+    private String symbol;
+    private char plaintext;
+
+    @Setup
+    public void setup() {
+        game = new Game(new Player("bench"), "sentences");
+        game.generateCryptogram(Game.GameType.LETTER);
+        symbol = game.getCryptogram().getCypherText().get(0);
+        plaintext = game.getCryptogram().getPhrase().charAt(0);
+    }
+
+    @Benchmark
+    public void enterAndUndoLetter(Blackhole bh) {
+        bh.consume(game.enterLetter(symbol, plaintext));
+        bh.consume(game.undoLetter(symbol));
+    }
+
+    @Benchmark
+    public void enterUndoAndRender(Blackhole bh) {
+        game.enterLetter(symbol, plaintext);
+        bh.consume(game.renderGameState());
+        game.undoLetter(symbol);
+        bh.consume(game.renderGameState());
+    }
+
+    @Benchmark
+    public boolean hasGuessesForAllCypherCharacters() {
+        return game.hasGuessesForAllCypherCharacters();
+    }
+
+    @Benchmark
+    public boolean isValidCypherCharacter() {
+        return game.isValidCypherCharacter(symbol);
+    }
+}
@@ -0,0 +1,93 @@
+package com.teamn.crypto;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of refreshing a 10 place leaderboard, and of keeping an incremental one ranked, as
+ * the number of registered players grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LeaderBoardBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int players;
+
+    private LeaderBoard leaderBoard;
+    private LeaderBoard incremental;
+    private Player middle; // registered halfway through
+
+    @Setup
+    public void setup() {
+        Random rand = new Random(players);
+        List<Player> list = new ArrayList<>(players);
+        for (int i = 0; i < players; i++) {
+            Player p = new Player("player" + i);
+            int played = rand.nextInt(50);
+            int solved = played == 0 ? 0 : rand.nextInt(played + 1);
+            for (int j = 0; j < played; j++) p.incrementCryptogramsPlayed();
+            for (int j = 0; j < solved; j++) p.incrementCryptogramsSolved();
+            list.add(p);
+        }
+        leaderBoard = new LeaderBoard(10, list);
+
+        incremental = new LeaderBoard(10);
+        for (Player p : list) incremental.add(p);
+        middle = list.get(players / 2);
+    }
+
+    /**
+     * A player on the incremental board who is reset before every invocation, so each one
+     * measures the same stat change from the same starting rank. Kept in its own state so
+     * the per-invocation reset only runs around incrementalStatChangeAndRank.
+     */
+    @State(Scope.Benchmark)
+    public static class Mover {
+
+        private LeaderBoard board;
+        private Player player;
+        private Player base; // the mover's statistics before each invocation
+
+        @Setup
+        public void setup(LeaderBoardBenchmark benchmark) {
+            board = benchmark.incremental;
+            player = benchmark.middle;
+            base = player;
+        }
+
+        @Setup(Level.Invocation)
+        public void reset() {
+            board.remove(player);
+            player = new Player(base.getUsername(), base.correctGuesses, base.totalGuesses,
+                    base.cryptogramsPlayed, base.cryptogramsSolved);
+            board.add(player);
+        }
+    }
+
+    @Benchmark
+    public Player[] update() {
+        leaderBoard.update();
+        return leaderBoard.getBoard();
+    }
+
+    @Benchmark
+    public Player[] incrementalUpdate() {
+        incremental.update();
+        return incremental.getBoard();
+    }
+
+    @Benchmark
+    public int incrementalStatChangeAndRank(Mover mover) {
+        mover.player.incrementCryptogramsPlayed();
+        return mover.board.getRank(mover.player);
+    }
+}
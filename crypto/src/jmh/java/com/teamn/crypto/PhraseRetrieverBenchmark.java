@@ -0,0 +1,54 @@
+package com.teamn.crypto;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of drawing a random phrase from small and large corpora in each retrieval mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhraseRetrieverBenchmark {
+
+    @Param({"1000", "1000000"})
+    int lines;
+
+    private Path corpus;
+    private PhraseRetriever mapped;
+
+    @Setup
+    public void setup() throws IOException {
+        corpus = BenchmarkCorpus.write(lines);
+        mapped = new PhraseRetriever(corpus);
+        mapped.getRandomPhrase(); // build the index outside of the measurement
+    }
+
+    @Benchmark
+    public String mappedRetrieverReused() {
+        return mapped.getRandomPhrase();
+    }
+
+    @Benchmark
+    public String mappedRetrieverPerPhrase() {
+        return new PhraseRetriever(corpus).getRandomPhrase();
+    }
+
+    @Benchmark
+    public String reservoirSampledStream() throws IOException {
+        return new PhraseRetriever(new BufferedInputStream(Files.newInputStream(corpus))).getRandomPhrase();
+    }
+
+    @Benchmark
+    public String classpathSentences() {
+        return new PhraseRetriever("sentences").getRandomPhrase();
+    }
+}
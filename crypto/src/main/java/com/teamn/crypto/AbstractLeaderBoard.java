@@ -0,0 +1,78 @@
+package com.teamn.crypto;
+
+/**
+ * The places of a leaderboard and how they are shown, shared by LeaderBoard and
+ * ShardedLeaderBoard, which each rank players in their own way.
+ */
+public abstract class AbstractLeaderBoard implements PlayerListener {
+
+    Player[] board;
+
+    /**
+     * @param boardSize the number of places on the leaderboard
+     */
+    protected AbstractLeaderBoard(int boardSize) {
+        board = new Player[boardSize];
+    }
+
+    /**
+     * Starts ranking a player
+     * @param player the player to add
+     */
+    public abstract void add(Player player);
+
+    /**
+     * Stops ranking a player
+     * @param player the player to remove
+     */
+    public abstract void remove(Player player);
+
+    /**
+     * @param player a player added to the leaderboard
+     * @return the player's rank, 1 being the best, or -1 if the player hasn't been added
+     */
+    public abstract int getRank(Player player);
+
+    /**
+     * Fills the board with the best players
+     */
+    public abstract void update();
+
+    /**
+     * @return the leaderboard
+     */
+    public Player[] getBoard() {
+        return board;
+    }
+
+    /**
+     * Produces a nicely formatted string representing the leaderboard.
+     * @return the leaderboard as a nicely formatted string
+     */
+    public String printableLeaderBoard(){
+        StringBuilder sb = new StringBuilder();
+
+        if(board[0] == null){
+            sb.append("There are no players with which to make a leaderboard!");
+        } else {
+            sb.append("\t** Leaderboard **\n");
+            sb.append("------------------------------------------------\n");
+            sb.append("   Name      Proportion of cryptograms completed\n");
+
+            for(int i = 0; i < board.length; i++){
+                sb.append(i+1);
+                sb.append(")");
+                if(board[i] == null){
+                    sb.append("\n");
+                } else {
+                    sb.append(" " + board[i].getUsername());
+                    sb.append("\t");
+                    sb.append((int) (board[i].getAccuracyOfSolvedGames() * 100));
+                    sb.append("%\n");
+                }
+            }
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,184 @@
+package com.teamn.crypto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Saves games in the background so the player never waits on the disk. Changed games are
+ * only marked dirty; once per interval a background thread writes every dirty game, so a
+ * burst of moves costs a single write and at most one interval of moves is lost on a crash.
+ * The writes of one interval are batched: all temporary files are written first, then all
+ * forced, then all renamed into place.
+ *
+ * Auto saves go to their own [username].autosave file, so a game the player saved from the
+ * menu is never overwritten or deleted by the auto saver.
+ */
+public class AutoSaver implements Closeable {
+
+    private final Path directory;
+    static final String SUFFIX = ".autosave";
+
+    private final GameCodec codec = new GameCodec();
+    private final ConcurrentMap<Path, Game> dirty = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService writer;
+
+    /**
+     * @param directory the directory games are auto saved to, as [username].autosave
+     * @param interval how often dirty games are written
+     * @param unit the unit of the interval
+     */
+    public AutoSaver(Path directory, long interval, TimeUnit unit) {
+        this.directory = directory;
+        this.writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "autosave");
+            t.setDaemon(true);
+            return t;
+        });
+        writer.scheduleWithFixedDelay(this::writeDirty, interval, interval, unit);
+    }
+
+    /**
+     * Marks a game as needing to be saved. Returns immediately.
+     * @param game the game that changed
+     */
+    public void gameChanged(Game game) {
+        dirty.put(fileFor(game), game);
+    }
+
+    /**
+     * Deletes a game's auto save, e.g. once it has been solved, after any write already
+     * under way. A save made from the menu is left alone.
+     * @param game the game whose auto save is no longer wanted
+     */
+    public void discard(Game game) {
+        Path file = fileFor(game);
+        dirty.remove(file);
+        try {
+            writer.execute(() -> {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    System.out.println(String.format("Could not delete file %s", file));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // already closed
+        }
+    }
+
+    /**
+     * Writes every dirty game now, waiting for the writes to finish
+     */
+    public void flush() {
+        try {
+            writer.submit(this::writeDirty).get();
+        } catch (RejectedExecutionException e) {
+            writeDirty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Writes every dirty game and stops the background thread
+     */
+    @Override
+    public void close() {
+        flush();
+        writer.shutdown();
+    }
+
+    /**
+     * @param game a game
+     * @return the file the game is auto saved to
+     */
+    Path fileFor(Game game) {
+        return fileFor(game.getCurrentPlayer().getUsername());
+    }
+
+    /**
+     * @param username a username
+     * @return the file the player's game is auto saved to
+     */
+    Path fileFor(String username) {
+        return directory.resolve(username + SUFFIX);
+    }
+
+    /**
+     * @return the number of games waiting to be written
+     */
+    int pending() {
+        return dirty.size();
+    }
+
+    /**
+     * Writes all dirty games as one batch. A game changed while the batch is being written
+     * is marked dirty again and goes in the next batch.
+     */
+    private synchronized void writeDirty() {
+        Map<Path, Path> written = new LinkedHashMap<>(); // target -> temporary file
+        for (Path file : new ArrayList<>(dirty.keySet())) {
+            Game game = dirty.remove(file);
+            if (game == null) continue;
+            try {
+                written.put(file, SaveFile.writeTemp(file, encode(game), false));
+            } catch (IOException e) {
+                System.out.println(String.format("Could not write file %s", file));
+            }
+        }
+        if (written.isEmpty()) return;
+
+        Iterator<Map.Entry<Path, Path>> it = written.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Path, Path> entry = it.next();
+            try {
+                SaveFile.force(entry.getValue());
+            } catch (IOException e) {
+                System.out.println(String.format("Could not write file %s", entry.getKey()));
+                deleteQuietly(entry.getValue());
+                it.remove();
+            }
+        }
+
+        Set<Path> directories = new HashSet<>();
+        for (Map.Entry<Path, Path> entry : written.entrySet()) {
+            try {
+                SaveFile.move(entry.getValue(), entry.getKey());
+                directories.add(entry.getKey().toAbsolutePath().getParent());
+            } catch (IOException e) {
+                System.out.println(String.format("Could not write file %s", entry.getKey()));
+                deleteQuietly(entry.getValue());
+            }
+        }
+        for (Path dir : directories) {
+            SaveFile.syncDirectory(dir);
+        }
+    }
+
+    /**
+     * Encodes a game while holding its lock, so the save never sees half of a move
+     */
+    private byte[] encode(Game game) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        synchronized (game) {
+            codec.write(game, new DataOutputStream(bytes));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // left for the next save to replace
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.teamn.crypto;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes values of a type to, and reads them back from, a compact binary form. Each codec
+ * starts what it writes with its own format version so old data can still be recognised.
+ * @param <T> the type of value
+ */
+public interface Codec<T> {
+
+    /**
+     * @param value the value to write
+     * @param out where to write it
+     * @throws IOException if it cannot be written
+     */
+    void write(T value, DataOutput out) throws IOException;
+
+    /**
+     * @param in where to read the value from
+     * @return the value
+     * @throws IOException if it cannot be read or is not in a known format
+     */
+    T read(DataInput in) throws IOException;
+}
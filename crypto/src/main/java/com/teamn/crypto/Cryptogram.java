@@ -2,39 +2,150 @@ package com.teamn.crypto;
 
 import java.io.Serializable;
 import java.util.*;
-import java.util.stream.IntStream;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Represents a cryptogram state
  */
-import static java.util.stream.Collectors.toList;
-
 public abstract class Cryptogram implements Serializable{
 
     protected final static int ASCII_BASE_ALPHABET = 65;
+    protected final static byte SPACE = -1;
 
     protected String phrase;
-    protected List<String> cypherText;
+    protected int[] key;
+    protected byte[] cypherSymbols;
+    protected int symbolMask; // bit i is set if symbol i appears in the cypher text
+    protected int[] symbolCounts; // number of occurrences of each symbol in the cypher text
+    protected int spaceCount;
+    protected transient int[][] symbolPositions; // where each symbol appears in the cypher text
+    protected transient Map<String, Integer> frequencies;
+    protected transient List<String> cypherText;
     protected Map<String, String> correctness;
 
     public Cryptogram(String sentencesFile) {
-        PhraseRetriever pr = new PhraseRetriever(sentencesFile);
-        phrase = pr.getRandomPhrase();
-        this.cypherText = this.encryptString();
+        this(new PhraseRetriever(sentencesFile));
+    }
+
+    /**
+     * @param phraseRetriever where to take the phrase to encrypt from
+     */
+    public Cryptogram(PhraseRetriever phraseRetriever) {
+        phrase = phraseRetriever.getRandomPhrase();
+        this.encryptString();
+    }
+
+    /**
+     * Restores a previously saved cryptogram from its key and cypher text
+     * @param key the permutation the phrase was encrypted with
+     * @param cypherSymbols the index of the cypher symbol at each position, SPACE for spaces
+     * @throws IllegalArgumentException if the key is not a permutation of the alphabet or a
+     * symbol is outside of it
+     */
+    protected Cryptogram(int[] key, byte[] cypherSymbols) {
+        int size = this.getAlphabetSize();
+        if (key.length != size) throw new IllegalArgumentException("Key does not match the alphabet");
+
+        int[] inverse = new int[size];
+        Arrays.fill(inverse, -1);
+        for (int plain = 0; plain < size; plain++) {
+            if (key[plain] < 0 || key[plain] >= size || inverse[key[plain]] >= 0)
+                throw new IllegalArgumentException("Key is not a permutation");
+            inverse[key[plain]] = plain;
+        }
+
+        char[] plaintext = new char[cypherSymbols.length];
+        for (int i = 0; i < cypherSymbols.length; i++) {
+            int symbol = cypherSymbols[i];
+            if (symbol == SPACE)
+                plaintext[i] = ' ';
+            else if (symbol < 0 || symbol >= size)
+                throw new IllegalArgumentException("Cypher symbol outside of the alphabet: " + symbol);
+            else
+                plaintext[i] = (char) (ASCII_BASE_ALPHABET + inverse[symbol]);
+        }
+
+        phrase = new String(plaintext);
+        this.encrypt(key.clone());
     }
 
     /**
-     * Generates a list the size of the alphabet with a new mapping between a given character
-     * (represented by the index) to a new character (represented by the value at the index)
-     * @param alphabetSize Te number of elements in the alphabet
-     * @return List with randomised allocations
+     * Generates a random permutation of the alphabet, mapping a given character (represented
+     * by the index) to a new character (represented by the value at the index)
+     * @param alphabetSize The number of elements in the alphabet
+     * @return array with randomised allocations
      */
-    List<Integer> generateRandomCharacterAllocations(int alphabetSize) {
-        List<Integer> allocations = IntStream.range(0, alphabetSize).boxed().collect(toList());
-        Collections.shuffle(allocations);
+    int[] generateRandomKey(int alphabetSize) {
+        int[] allocations = new int[alphabetSize];
+        for (int i = 0; i < alphabetSize; i++) {
+            allocations[i] = i;
+        }
+
+        Random rand = ThreadLocalRandom.current();
+        for (int i = alphabetSize - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int swap = allocations[i];
+            allocations[i] = allocations[j];
+            allocations[j] = swap;
+        }
         return allocations;
     }
 
+    /**
+     * Encrypts the phrase with a randomly generated key, storing the index of the cypher symbol
+     * for each character of the phrase (SPACE for spaces) and the correct mappings.
+     */
+    protected void encryptString() {
+        this.encrypt(this.generateRandomKey(this.getAlphabetSize()));
+    }
+
+    /**
+     * Encrypts the phrase with the given key
+     */
+    private void encrypt(int[] key) {
+        this.key = key;
+        cypherSymbols = new byte[phrase.length()];
+        correctness = new HashMap<>();
+        symbolMask = 0;
+        symbolCounts = new int[this.getAlphabetSize()];
+        spaceCount = 0;
+
+        for (int i = 0; i < phrase.length(); i++) {
+            char c = phrase.charAt(i);
+            if (c == ' ') {
+                cypherSymbols[i] = SPACE;
+                spaceCount++;
+                continue;
+            }
+
+            int plain = c - ASCII_BASE_ALPHABET;
+            cypherSymbols[i] = (byte) key[plain];
+            symbolCounts[key[plain]]++;
+            if ((symbolMask & (1 << key[plain])) == 0) {
+                correctness.put(this.getSymbol(key[plain]), String.valueOf(c));
+                symbolMask |= 1 << key[plain];
+            }
+        }
+        this.indexPositions();
+    }
+
+    /**
+     * Builds the inverted index from each symbol to the positions it appears at, using the
+     * symbol counts to size each list exactly
+     */
+    private void indexPositions() {
+        int[][] positions = new int[symbolCounts.length][];
+        int[] found = new int[symbolCounts.length];
+        for (int i = 0; i < symbolCounts.length; i++) {
+            positions[i] = new int[symbolCounts[i]];
+        }
+        for (int i = 0; i < cypherSymbols.length; i++) {
+            int symbol = cypherSymbols[i];
+            if (symbol != SPACE) positions[symbol][found[symbol]++] = i;
+        }
+        symbolPositions = positions;
+    }
+
     /**
      * Get the current plaintext phrase
      * @return the plaintext phrase
@@ -45,25 +156,116 @@ public abstract class Cryptogram implements Serializable{
     }
 
     /**
-     * Get the frequencies of the cypher characters.
-     * @return a map of cypher numbers (as strings) to frequencies.
+     * Get the frequencies of the cypher characters. The map is built from the symbol counts
+     * on first use and shared afterwards.
+     * @return an unmodifiable map of cypher symbols (as strings, including " ") to frequencies.
      */
     public Map<String, Integer> getCypherTextFrequencies() {
-        Map<String, Integer> frequencies = new HashMap<>();
-        for (String s: this.cypherText) {
-            if(!frequencies.containsKey(s))
-                frequencies.put(s,Collections.frequency(this.cypherText,s));
+        if (frequencies == null) {
+            Map<String, Integer> counts = new HashMap<>();
+            for (int i = 0; i < symbolCounts.length; i++) {
+                if (symbolCounts[i] > 0)
+                    counts.put(this.getSymbol(i), symbolCounts[i]);
+            }
+            if (spaceCount > 0)
+                counts.put(" ", spaceCount);
+            frequencies = Collections.unmodifiableMap(counts);
         } return frequencies;
     }
 
     /**
-     * Gets the current cypher text
+     * @param index the index of a symbol within the alphabet
+     * @return the number of times the symbol appears in the cypher text
+     */
+    public int getSymbolCount(int index) {
+        return symbolCounts[index];
+    }
+
+    /**
+     * Gets every position of the cypher text a symbol appears at, without scanning it. The
+     * array is shared and must not be modified.
+     * @param index the index of a symbol within the alphabet
+     * @return the positions in ascending order, empty if the symbol does not appear
+     */
+    int[] getSymbolPositions(int index) {
+        if (symbolPositions == null) this.indexPositions(); // not serialized
+        return symbolPositions[index];
+    }
+
+    /**
+     * @param index the index of a symbol within the alphabet
+     * @return the plaintext letter the symbol stands for, or 0 if it does not appear
+     */
+    public char getPlaintext(int index) {
+        int[] positions = this.getSymbolPositions(index);
+        return positions.length == 0 ? 0 : phrase.charAt(positions[0]);
+    }
+
+    /**
+     * Checks a guess for one symbol without looking at the rest of the cryptogram
+     * @param index the index of a symbol within the alphabet
+     * @param guess the plaintext letter guessed for it
+     * @return true if the symbol appears and stands for the guessed letter
+     */
+    public boolean isCorrectGuess(int index, char guess) {
+        char plaintext = this.getPlaintext(index);
+        return plaintext != 0 && plaintext == guess;
+    }
+
+    /**
+     * @return the number of symbols in the cypher text, not counting spaces
+     */
+    public int getSymbolTotal() {
+        return cypherSymbols.length - spaceCount;
+    }
+
+    /**
+     * Gets the current cypher text. The list is a read-only view over the cypher symbols,
+     * created on first use.
      * @return the cypher text
      */
     public List<String> getCypherText(){
+        if (cypherText == null) {
+            cypherText = new AbstractList<String>() {
+                @Override
+                public String get(int index) {
+                    return getCypherSymbolString(index);
+                }
+
+                @Override
+                public int size() {
+                    return cypherSymbols.length;
+                }
+            };
+        }
         return cypherText;
     }
 
+    /**
+     * @return the number of symbols (including spaces) in the cypher text
+     */
+    public int getCypherLength() {
+        return cypherSymbols.length;
+    }
+
+    /**
+     * Gets the index within the alphabet of the cypher symbol at a position of the cypher text
+     * @param position the position within the cypher text
+     * @return the symbol index, or SPACE if the position holds a space
+     */
+    public int getCypherSymbol(int position) {
+        return cypherSymbols[position];
+    }
+
+    /**
+     * @param position the position within the cypher text
+     * @return the cypher symbol at the position as a string (" " for a space)
+     */
+    private String getCypherSymbolString(int position) {
+        byte symbol = cypherSymbols[position];
+        return symbol == SPACE ? " " : this.getSymbol(symbol);
+    }
+
     /**
      * Gets the correct mappings of cyphercharacter and plaintext character
      * @return correct mappings
@@ -72,11 +274,19 @@ public abstract class Cryptogram implements Serializable{
         return correctness;
     }
 
+    /**
+     * @return a copy of the key, mapping the index of each plaintext letter to the index of
+     * its cypher symbol
+     */
+    public int[] getKey() {
+        return key.clone();
+    }
+
     @Override
     public String toString() {
         StringBuilder ctext = new StringBuilder();
-        for(String s: cypherText)
-            ctext.append(s).append(" ");
+        for(int i = 0; i < cypherSymbols.length; i++)
+            ctext.append(getCypherSymbolString(i)).append(" ");
 
         return ctext.toString();
     }
@@ -88,10 +298,31 @@ public abstract class Cryptogram implements Serializable{
     public abstract List<String> getAlphabet();
 
     /**
-     * Encrypts the given string with a randomly generated character allocation.
-     * @return the encrypted string
+     * @return the number of symbols in the alphabet
+     */
+    protected abstract int getAlphabetSize();
+
+    /**
+     * Gets a symbol of the alphabet
+     * @param index the index of the symbol within the alphabet
+     * @return the symbol
+     */
+    public abstract String getSymbol(int index);
+
+    /**
+     * Looks up a symbol in the alphabet without searching it
+     * @param symbol a potential cypher symbol
+     * @return the index of the symbol within the alphabet, or -1 if it isn't part of it
+     */
+    public abstract int getSymbolIndex(String symbol);
+
+    /**
+     * @param symbol a potential cypher symbol
+     * @return true if the symbol is part of the alphabet
      */
-    protected abstract  List<String> encryptString();
+    public boolean isValidSymbol(String symbol) {
+        return this.getSymbolIndex(symbol) >= 0;
+    }
 
     /**
      *
@@ -99,7 +330,22 @@ public abstract class Cryptogram implements Serializable{
      * @return True if the Ciphertext contains that character
      */
     public boolean cyphertextContainsChar(String c) {
-        return this.cypherText.contains(c);
+        return this.containsSymbol(this.getSymbolIndex(c));
+    }
+
+    /**
+     * @param index the index of a symbol within the alphabet
+     * @return True if the Ciphertext contains that symbol
+     */
+    public boolean containsSymbol(int index) {
+        return index >= 0 && (symbolMask & (1 << index)) != 0;
+    }
+
+    /**
+     * @return the number of different symbols in the Ciphertext
+     */
+    public int getDistinctSymbolCount() {
+        return Integer.bitCount(symbolMask);
     }
 
 
@@ -110,15 +356,10 @@ public abstract class Cryptogram implements Serializable{
      * @return True if all guesses are correct and complete the cryptogram
      */
     public boolean isCorrect(Map<String, Character> guesses){
-        Character userguess;
-        Character actualChar;
-        for(int i = 0; i < phrase.length(); i++){
-            if(phrase.charAt(i) == ' ') {
-                continue;
-            }
-            userguess = guesses.get(cypherText.get(i));
-            actualChar = phrase.charAt(i);
-            if(userguess != actualChar){
+        for (int mask = symbolMask; mask != 0; mask &= mask - 1) { // each symbol in the cypher text once
+            int symbol = Integer.numberOfTrailingZeros(mask);
+            Character userguess = guesses.get(this.getSymbol(symbol));
+            if (userguess == null || userguess != this.getPlaintext(symbol)) {
                 return false;
             }
         }
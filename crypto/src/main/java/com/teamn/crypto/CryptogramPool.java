@@ -0,0 +1,128 @@
+package com.teamn.crypto;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps a pool of pre-generated cryptograms of each type so that handing one out to a game
+ * does not read the phrases file or shuffle an alphabet on the caller's thread. Cryptograms
+ * are generated in batches on a background thread whenever a pool drops below its low watermark.
+ */
+public class CryptogramPool {
+
+    private final String sentencesFile;
+    private final int capacity;
+    private final int lowWatermark;
+    private final Map<Game.GameType, BlockingQueue<Cryptogram>> pools = new EnumMap<>(Game.GameType.class);
+    private final Map<Game.GameType, AtomicBoolean> refilling = new EnumMap<>(Game.GameType.class);
+    private final ExecutorService generator;
+
+    /**
+     * @param sentencesFile the phrases file the cryptograms are generated from
+     * @param capacity the number of cryptograms of each type to keep ready
+     * @param lowWatermark refill a pool once it holds fewer than this many cryptograms
+     */
+    public CryptogramPool(String sentencesFile, int capacity, int lowWatermark) {
+        if (capacity < 1 || lowWatermark < 0 || lowWatermark > capacity) {
+            throw new IllegalArgumentException("lowWatermark must be between 0 and capacity, and capacity at least 1");
+        }
+
+        this.sentencesFile = sentencesFile;
+        this.capacity = capacity;
+        this.lowWatermark = lowWatermark;
+        this.generator = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "cryptogram-pool");
+            t.setDaemon(true);
+            return t;
+        });
+
+        for (Game.GameType type : Game.GameType.values()) {
+            pools.put(type, new ArrayBlockingQueue<>(capacity));
+            refilling.put(type, new AtomicBoolean());
+            scheduleRefill(type);
+        }
+    }
+
+    /**
+     * Takes a pre-generated cryptogram of the given type. If the pool is empty (e.g. straight
+     * after start up) one is generated on the caller's thread instead of waiting.
+     * @param type the type of cryptogram wanted
+     * @return a cryptogram which has not been handed out before
+     */
+    public Cryptogram take(Game.GameType type) {
+        Cryptogram cryptogram = pools.get(type).poll();
+        if (pools.get(type).size() < lowWatermark) {
+            scheduleRefill(type);
+        }
+        return cryptogram != null ? cryptogram : generate(type);
+    }
+
+    /**
+     * @param type a type of cryptogram
+     * @return the number of cryptograms of that type ready to be handed out
+     */
+    public int available(Game.GameType type) {
+        return pools.get(type).size();
+    }
+
+    /**
+     * @return the phrases file the cryptograms are generated from
+     */
+    public String getSentencesFile() {
+        return sentencesFile;
+    }
+
+    /**
+     * Stops the background generation. Cryptograms already in the pool can still be taken.
+     */
+    public void shutdown() {
+        generator.shutdownNow();
+    }
+
+    /**
+     * Queues a batch generation for a pool unless one is already queued or running.
+     */
+    private void scheduleRefill(Game.GameType type) {
+        if (generator.isShutdown() || !refilling.get(type).compareAndSet(false, true)) return;
+
+        try {
+            generator.execute(() -> refill(type));
+        } catch (RejectedExecutionException e) {
+            refilling.get(type).set(false);
+        }
+    }
+
+    /**
+     * Generates a batch of cryptograms topping the pool back up to capacity.
+     */
+    private void refill(Game.GameType type) {
+        BlockingQueue<Cryptogram> pool = pools.get(type);
+        try {
+            List<Cryptogram> batch = new ArrayList<>(capacity);
+            PhraseRetriever phraseRetriever = new PhraseRetriever(sentencesFile);
+            for (int i = pool.size(); i < capacity && !Thread.currentThread().isInterrupted(); i++) {
+                batch.add(generate(type, phraseRetriever));
+            }
+            for (Cryptogram cryptogram : batch) {
+                if (!pool.offer(cryptogram)) break;
+            }
+        } finally {
+            refilling.get(type).set(false);
+        }
+    }
+
+    private Cryptogram generate(Game.GameType type) {
+        return generate(type, new PhraseRetriever(sentencesFile));
+    }
+
+    private static Cryptogram generate(Game.GameType type, PhraseRetriever phraseRetriever) {
+        if (type == Game.GameType.LETTER)
+            return new LetterCryptogram(phraseRetriever);
+        else
+            return new NumberCryptogram(phraseRetriever);
+    }
+}
@@ -12,6 +12,7 @@ public class FrequencyManager {
     private final static int ASCII_START_LOWERCASE = 0x61;
     private final static int ENGLISH_CHARS_N = 26;
     private final static double[] ENGLISH_C_FREQUENCIES = {8.12,1.49,2.71,4.32,12.02,2.30,2.03,5.92,7.31,0.10,0.69,3.98,2.61,6.95,7.68,1.82,0.11,6.02,6.28,9.10,2.88,1.11,2.09,0.17,2.11,0.07};
+    private final static Map<String, String> ENGLISH_FREQUENCIES = formatEnglishFrequencies();
 
     /**
      * Counts the number of occurrences of each character in a string
@@ -95,9 +96,16 @@ public class FrequencyManager {
 
     /**
      * For each character in a string, get its frequency as a percentage in the english language
-     * @return a map from each character to its frequency with the language (percentage formatted as a string)
+     * @return an unmodifiable map from each character to its frequency with the language (percentage formatted as a string)
      */
     public static Map<String, String> getEnglishFrequencies() {
+        return ENGLISH_FREQUENCIES;
+    }
+
+    /**
+     * Builds the formatted english frequencies once for getEnglishFrequencies()
+     */
+    private static Map<String, String> formatEnglishFrequencies() {
 
         Map<String,String> frequencies = new HashMap<>();
 
@@ -106,6 +114,42 @@ public class FrequencyManager {
             frequencies.put(c.toString(), String.format("%.2f",frequencyForCharacter(c)));
         }
 
+        return Collections.unmodifiableMap(frequencies);
+    }
+
+    /**
+     * Get the frequency of a letter in the english language
+     * @param index the index of the letter in the alphabet (0 for A)
+     * @return the frequency - between 0 and 100
+     */
+    public static double getEnglishFrequency(int index) {
+        return ENGLISH_C_FREQUENCIES[index];
+    }
+
+    /**
+     * @return the frequency of each letter in the english language (between 0 and 100), indexed by
+     * the letter's position in the alphabet
+     */
+    public static double[] getEnglishDistribution() {
+        return ENGLISH_C_FREQUENCIES.clone();
+    }
+
+    /**
+     * For every symbol of a cryptogram's alphabet, get its frequency as a percentage of the
+     * symbols (not counting spaces) in the cypher text. Letter cryptograms used to be shown
+     * as a percentage of the cypher text joined with spaces, spaces included, so their
+     * percentages didn't add up to 100; now both kinds of cryptogram are counted the same way.
+     * @param cryptogram the cryptogram
+     * @return the frequency of each symbol (between 0 and 100), indexed by the symbol's position in the alphabet
+     */
+    public static double[] getInternalFrequencies(Cryptogram cryptogram) {
+        double[] frequencies = new double[cryptogram.getAlphabet().size()];
+        int total = cryptogram.getSymbolTotal();
+        if (total == 0) return frequencies;
+
+        for (int i = 0; i < frequencies.length; i++) {
+            frequencies[i] = ((double) cryptogram.getSymbolCount(i) / (double) total) * 100;
+        }
         return frequencies;
     }
 
@@ -3,6 +3,7 @@ package com.teamn.crypto;
 import sun.reflect.generics.reflectiveObjects.NotImplementedException;
 
 import java.io.*;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,39 +20,80 @@ public class Game implements Serializable {
     private Player currentPlayer;
     private Cryptogram cryptogram;
     private Map<String, Character> guesses;
+    private int unguessedSymbols; // cypher symbols in the cryptogram without a guess
     private String sentencesFile;
+    private transient CryptogramPool cryptogramPool;
+    private transient AutoSaver autoSaver;
+    private transient GameRenderer renderer; // created when the game is first rendered
 
     public Game(Player player, String sentencesFile) {
         this.currentPlayer = player;
         this.sentencesFile = sentencesFile;
     }
 
+    /**
+     * @param player the player playing the game
+     * @param cryptogramPool pool of pre-generated cryptograms to take new cryptograms from
+     */
+    public Game(Player player, CryptogramPool cryptogramPool) {
+        this.currentPlayer = player;
+        this.sentencesFile = cryptogramPool.getSentencesFile();
+        this.cryptogramPool = cryptogramPool;
+    }
+
+    /**
+     * Restores a previously saved game
+     * @param player the player playing the game
+     * @param sentencesFile the phrases file new cryptograms are generated from
+     * @param cryptogram the cryptogram being solved
+     * @param guesses the guesses made so far, by cypher symbol
+     */
+    Game(Player player, String sentencesFile, Cryptogram cryptogram, Map<String, Character> guesses) {
+        this.currentPlayer = player;
+        this.sentencesFile = sentencesFile;
+        this.cryptogram = cryptogram;
+        this.guesses = guesses;
+        unguessedSymbols = cryptogram.getDistinctSymbolCount();
+        for (String symbol : guesses.keySet()) {
+            if (cryptogram.cyphertextContainsChar(symbol)) unguessedSymbols--;
+        }
+    }
+
     /**
      * Generates a new cryptogram for the game as either a LetterCryptogram
      * or a NumberCryptogram depending on GameType
      * @param gameType the type of game to generate
      */
-    public void generateCryptogram(GameType gameType) {
+    public synchronized void generateCryptogram(GameType gameType) {
         currentPlayer.incrementCryptogramsPlayed();
         Cryptogram newCryptogram;
 
         if(cryptogram == null){
-            if(gameType==GameType.LETTER)
-                newCryptogram = new LetterCryptogram(sentencesFile);
-            else
-                newCryptogram = new NumberCryptogram(sentencesFile);
+            newCryptogram = newCryptogram(gameType);
         } else { // ensure we don't regenerate the same cryptogram
             do {
-                if(gameType==GameType.LETTER) {
-                    newCryptogram = new LetterCryptogram(sentencesFile);
-                } else {
-                    newCryptogram = new NumberCryptogram(sentencesFile);
-                }
+                newCryptogram = newCryptogram(gameType);
             } while (newCryptogram.getPhrase().equals(cryptogram.getPhrase()));
         }
 
         cryptogram = newCryptogram;
+        renderer = null;
         guesses = new HashMap<>(); // reset the user guesses
+        unguessedSymbols = cryptogram.getDistinctSymbolCount();
+    }
+
+    /**
+     * Takes a cryptogram from the pool if the game has one, otherwise generates one
+     * @param gameType the type of cryptogram to create
+     * @return the new cryptogram
+     */
+    private Cryptogram newCryptogram(GameType gameType) {
+        if(cryptogramPool != null)
+            return cryptogramPool.take(gameType);
+        else if(gameType==GameType.LETTER)
+            return new LetterCryptogram(sentencesFile);
+        else
+            return new NumberCryptogram(sentencesFile);
     }
 
     /**
@@ -60,24 +102,20 @@ public class Game implements Serializable {
      * @param plaintextchar the plaintext character
      * @return if the guess was made successfully (a guess for cypherchar doesn't already exist
      */
-    public boolean enterLetter(String cypherchar, char plaintextchar) {
-        if (cryptogram.getAlphabet().contains(cypherchar) && !guesses.containsKey(cypherchar)) {
+    public synchronized boolean enterLetter(String cypherchar, char plaintextchar) {
+        if (cryptogram.isValidSymbol(cypherchar) && !guesses.containsKey(cypherchar)) {
             guesses.put(cypherchar, Character.toUpperCase(plaintextchar));
+            showGuess(cypherchar);
+            changed();
             //check for correctness & update currentPlayer accuracy
-            Map<String, String> mappings = cryptogram.getCorrectMappings();
-
-            String mappingsChar = mappings.get(cypherchar);
-            if (mappingsChar ==  null) {
+            int symbol = cryptogram.getSymbolIndex(cypherchar);
+            if (!cryptogram.containsSymbol(symbol)) {
                 System.out.println("The plaintext char is not part of the available chars");
                 return false;
             }
+            unguessedSymbols--;
 
-            if(mappings.get(cypherchar).equals(String.valueOf(plaintextchar))) {
-                currentPlayer.updateAccuracy(true);
-            }
-            else {
-                currentPlayer.updateAccuracy(false);
-            }
+            currentPlayer.updateAccuracy(cryptogram.isCorrectGuess(symbol, plaintextchar));
 
             return true;
         }
@@ -90,21 +128,77 @@ public class Game implements Serializable {
      * @param cypherchar - character whose mapping to is to be removed
      * @return true if a guess was removed, false if no such guess existed
      */
-    public boolean undoLetter(String cypherchar) {
+    public synchronized boolean undoLetter(String cypherchar) {
         if(guesses.containsKey(cypherchar)) {
             guesses.remove(cypherchar);
+            showGuess(cypherchar);
+            changed();
+            if(cryptogram.cyphertextContainsChar(cypherchar))
+                unguessedSymbols++;
             return true;
         }
         return false;
     }
 
+    /**
+     * Makes a batch of guesses and undos together. Every move is checked against the guesses
+     * as they would be after the moves before it, and if any of them cannot be made none
+     * are. The player's statistics and the auto saver are told about the batch once.
+     * @param batch the moves to make, in order
+     * @return null if every move was made, otherwise why the batch was rejected
+     */
+    public synchronized String applyMoves(MoveBatch batch) {
+        Map<String, Character> after = new HashMap<>(guesses);
+        for (MoveBatch.Move move : batch.getMoves()) {
+            if (!cryptogram.isValidSymbol(move.symbol))
+                return "\"" + move.symbol + "\" is not in the cyphers alphabet";
+            if (!cryptogram.cyphertextContainsChar(move.symbol))
+                return "The cryptogram does not contain " + move.symbol;
+            if (move.isUndo() ? after.remove(move.symbol) == null : after.putIfAbsent(move.symbol, move.plaintext) != null)
+                return move.isUndo() ? "There has not been a guess made for " + move.symbol + " so there's nothing to undo"
+                        : "There is already a guess for " + move.symbol + ", undo it before guessing again";
+        }
+
+        int correct = 0, total = 0;
+        for (MoveBatch.Move move : batch.getMoves()) {
+            if (move.isUndo()) {
+                guesses.remove(move.symbol);
+                unguessedSymbols++;
+            } else {
+                guesses.put(move.symbol, move.plaintext);
+                unguessedSymbols--;
+                total++;
+                if (cryptogram.isCorrectGuess(cryptogram.getSymbolIndex(move.symbol), move.plaintext)) correct++;
+            }
+            showGuess(move.symbol);
+        }
+        if (total > 0) currentPlayer.updateAccuracy(correct, total);
+        changed();
+        return null;
+    }
+
+    /**
+     * @param autoSaver saves the game in the background after every move, or null to stop
+     */
+    public void setAutoSaver(AutoSaver autoSaver) {
+        this.autoSaver = autoSaver;
+    }
+
+    /**
+     * Tells the auto saver, if there is one, that the game needs saving
+     */
+    private void changed() {
+        AutoSaver saver = autoSaver;
+        if (saver != null) saver.gameChanged(this);
+    }
+
     /**
      * Check if a cypher character (as a string) is in the Cryptogram cypher alphabet
      * @param cypherchar a potential cyphertext character
      * @return true if if it in current Cryptogram's alphabet
      */
     public boolean isValidCypherCharacter(String cypherchar){
-        return cryptogram.getAlphabet().contains(cypherchar);
+        return cryptogram.isValidSymbol(cypherchar);
     }
 
     /**
@@ -128,30 +222,45 @@ public class Game implements Serializable {
      * plaintext guesses
      */
     public void printGameState(){
+        out.println(renderGameState());
+    }
 
-        String cyphertext = cryptogram.toString();
-        StringBuilder playerGuesses = new StringBuilder();
-
-        out.println("\nCyphertext: " + cyphertext);
+    /**
+     * Renders the Cyphertext and the state of the player's
+     * plaintext guesses
+     * @return the rendered lines
+     */
+    public synchronized String renderGameState(){
+        return renderer().render(new StringBuilder()).toString();
+    }
 
-        for(String s: cryptogram.getCypherText()){
-            if(s.equals(" "))
-                playerGuesses.append("  ");
-            else if (!guesses.containsKey(s)) {
-                for(char ignored : s.toCharArray()){
-                    playerGuesses.append('_');
-                }
-                playerGuesses.append(" ");
-            } else {
-                playerGuesses.append(guesses.get(s));
-                if(s.length()>1)
-                    playerGuesses.append(" ");
-                playerGuesses.append(" ");
+    /**
+     * The renderer is created from the guesses the first time the game is shown, which also
+     * covers games that have just been loaded, and kept up to date after that
+     */
+    private GameRenderer renderer() {
+        if (renderer == null || renderer.getCryptogram() != cryptogram) {
+            renderer = new GameRenderer(cryptogram);
+            for (Map.Entry<String, Character> guess : guesses.entrySet()) {
+                if (cryptogram.cyphertextContainsChar(guess.getKey()))
+                    renderer.setGuess(cryptogram.getSymbolIndex(guess.getKey()), guess.getValue());
             }
         }
+        return renderer;
+    }
 
-        out.println("Playertext: " + playerGuesses);
-
+    /**
+     * Updates the rendered guesses, if the game has been rendered, for one symbol
+     * @param symbol the cypher symbol whose guess changed
+     */
+    private void showGuess(String symbol) {
+        if (renderer == null || !cryptogram.cyphertextContainsChar(symbol)) return;
+
+        Character guess = guesses.get(symbol);
+        if (guess == null)
+            renderer.clearGuess(cryptogram.getSymbolIndex(symbol));
+        else
+            renderer.setGuess(cryptogram.getSymbolIndex(symbol), guess);
     }
 
     /**
@@ -181,13 +290,7 @@ public class Game implements Serializable {
     public boolean hasGuessesForAllCypherCharacters(){
         if(cryptogram==null)
             return true;
-        List<String> cyphertext = cryptogram.getCypherText();
-        for(String cypherchar: cyphertext){
-            if(!cypherchar.contains(" ") && !guesses.containsKey(cypherchar)){
-                return false;
-            }
-        }
-        return true;
+        return unguessedSymbols == 0;
     }
 
     /**
@@ -207,37 +310,34 @@ public class Game implements Serializable {
     public void giveHint(){
         Scanner scanner = new Scanner(System.in);
         out.println("enter a letter you would like a hint for");
-        String c = scanner.nextLine().toUpperCase();
-        int status = 0;
-        Map<String, String> hint = cryptogram.getCorrectMappings();
-        if (!hasGuessesForAllCypherCharacters() && isValidCypherCharacter(c)){
-            for (String s : hint.keySet()){
-                s = c;
-
-                /* Checks if user has already made a guess and wants to change
-                choice for a hint
-                */
-                if (guesses.containsKey(s)) {
-                    guesses.put(s, hint.get(s).charAt(0));
-                 //   guesses.remove(s); //remove old key, and replace it with new one
-                    enterLetter(s, hint.get(s).charAt(0));
-                    status += 1;
-                }
-                else if (hint.containsKey(s)) {
-                    enterLetter(s, hint.get(s).charAt(0));
-                    status += 10;
-                }
-                if (status == 1) {
-                    out.println("Changed letter at " + s + " to "
-                            + hint.get(s).charAt(0));
-                    status += 2;
-                }
-                else if (status == 0) {
-                    out.println("Letter not valid");
-                    status += 4;
-                }
-            }
+        String message = giveHint(scanner.nextLine().toUpperCase());
+        if (message != null)
+            out.println(message);
+    }
+
+    /**
+     * Reveals the plaintext for a cypher symbol, replacing any guess already made for it
+     * @param c the cypher symbol to reveal
+     * @return a message for the player, or null if there is nothing to tell them
+     */
+    public synchronized String giveHint(String c){
+        if (hasGuessesForAllCypherCharacters() || !isValidCypherCharacter(c))
+            return null;
+        char hint = cryptogram.getPlaintext(cryptogram.getSymbolIndex(c));
+        if (hint == 0)
+            return "Letter not valid";
+
+        /* Checks if user has already made a guess and wants to change
+        choice for a hint
+        */
+        if (guesses.containsKey(c)) {
+            guesses.put(c, hint);
+            showGuess(c);
+            changed();
+            return "Changed letter at " + c + " to " + hint;
         }
+        enterLetter(c, hint);
+        return null;
     }
 
     /**
@@ -247,11 +347,25 @@ public class Game implements Serializable {
         return cryptogram;
     }
 
+    /**
+     * @return the guesses made so far, by cypher symbol
+     */
+    Map<String, Character> getGuesses() {
+        return Collections.unmodifiableMap(guesses);
+    }
+
+    /**
+     * @return the phrases file new cryptograms are generated from
+     */
+    public String getSentencesFile() {
+        return sentencesFile;
+    }
+
     public Player getCurrentPlayer() {
         return currentPlayer;
     }
 
-    public void setCurrentPlayer(Player currentPlayer) {
+    public synchronized void setCurrentPlayer(Player currentPlayer) {
         this.currentPlayer = currentPlayer;
     }
 
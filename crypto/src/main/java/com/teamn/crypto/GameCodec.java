@@ -0,0 +1,94 @@
+package com.teamn.crypto;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Binary form of a game: version, player, sentences file and, if a cryptogram has been
+ * generated, its type, key and cypher text (one byte per position) followed by the guesses
+ * as (symbol index, plaintext character) pairs. The phrase and everything else about the
+ * cryptogram is rebuilt from the key and cypher text.
+ */
+public class GameCodec implements Codec<Game> {
+
+    final static int VERSION = 1;
+
+    private final static int NO_CRYPTOGRAM = 0;
+    private final static int LETTER = 1;
+    private final static int NUMBER = 2;
+    private final static int ALPHABET_SIZE = 26; // of letter and number cryptograms alike
+    private final static int MAX_CYPHER_LENGTH = 64 * 1024; // far longer than any phrase
+
+    private final PlayerCodec playerCodec = new PlayerCodec();
+
+    @Override
+    public void write(Game game, DataOutput out) throws IOException {
+        out.writeByte(VERSION);
+        playerCodec.write(game.getCurrentPlayer(), out);
+        out.writeUTF(game.getSentencesFile());
+
+        Cryptogram cryptogram = game.getCryptogram();
+        if (cryptogram == null) {
+            out.writeByte(NO_CRYPTOGRAM);
+            return;
+        }
+
+        out.writeByte(cryptogram instanceof NumberCryptogram ? NUMBER : LETTER);
+        VarInts.write(out, cryptogram.key.length);
+        for (int symbol : cryptogram.key) {
+            out.writeByte(symbol);
+        }
+        VarInts.write(out, cryptogram.cypherSymbols.length);
+        out.write(cryptogram.cypherSymbols);
+
+        Map<String, Character> guesses = game.getGuesses();
+        VarInts.write(out, guesses.size());
+        for (Map.Entry<String, Character> guess : guesses.entrySet()) {
+            VarInts.write(out, cryptogram.getSymbolIndex(guess.getKey()));
+            out.writeChar(guess.getValue());
+        }
+    }
+
+    @Override
+    public Game read(DataInput in) throws IOException {
+        int version = in.readUnsignedByte();
+        if (version != VERSION) throw new IOException("Unknown game format version " + version);
+
+        Player player = playerCodec.read(in);
+        String sentencesFile = in.readUTF();
+
+        int type = in.readUnsignedByte();
+        if (type == NO_CRYPTOGRAM) return new Game(player, sentencesFile);
+        if (type != LETTER && type != NUMBER) throw new IOException("Unknown cryptogram type " + type);
+
+        int keyLength = VarInts.read(in); // lengths are checked before allocating, a headerless save has no checksum
+        if (keyLength != ALPHABET_SIZE) throw new IOException("Key does not match the alphabet: " + keyLength);
+        int[] key = new int[keyLength];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = in.readUnsignedByte();
+        }
+        int cypherLength = VarInts.read(in);
+        if (cypherLength > MAX_CYPHER_LENGTH) throw new IOException("Cypher text too long: " + cypherLength);
+        byte[] cypherSymbols = new byte[cypherLength];
+        in.readFully(cypherSymbols);
+
+        Cryptogram cryptogram;
+        try {
+            cryptogram = type == NUMBER ? new NumberCryptogram(key, cypherSymbols) : new LetterCryptogram(key, cypherSymbols);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt cryptogram", e);
+        }
+
+        int count = VarInts.read(in);
+        Map<String, Character> guesses = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            int symbol = VarInts.read(in);
+            if (symbol >= key.length) throw new IOException("Guess for a symbol outside of the alphabet: " + symbol);
+            guesses.put(cryptogram.getSymbol(symbol), in.readChar());
+        }
+        return new Game(player, sentencesFile, cryptogram, guesses);
+    }
+}
@@ -0,0 +1,88 @@
+package com.teamn.crypto;
+
+/**
+ * Renders a game's cyphertext and the player's guesses without rebuilding them every move.
+ * The cyphertext line never changes, so it is built once; the guess line is kept in a char
+ * buffer and only the places where a symbol appears, found through the cryptogram's index
+ * of symbol positions, are rewritten when its guess changes. Every position takes as many
+ * columns in the guess line as its symbol does, plus one.
+ */
+public class GameRenderer {
+
+    private final Cryptogram cryptogram;
+    private final String cypherLine;
+    private final char[] guessLine;
+    private final int[] columns; // where the guess for each position is written in guessLine
+
+    /**
+     * @param cryptogram the cryptogram being played, with no guesses shown yet
+     */
+    public GameRenderer(Cryptogram cryptogram) {
+        this.cryptogram = cryptogram;
+        this.cypherLine = cryptogram.toString();
+        this.guessLine = new char[cypherLine.length()];
+        this.columns = new int[cryptogram.getCypherLength()];
+
+        int column = 0;
+        for (int i = 0; i < columns.length; i++) {
+            int symbol = cryptogram.getCypherSymbol(i);
+            columns[i] = column;
+            if (symbol == Cryptogram.SPACE) {
+                guessLine[column++] = ' ';
+            } else {
+                for (int c = 0; c < cryptogram.getSymbol(symbol).length(); c++) {
+                    guessLine[column++] = '_';
+                }
+            }
+            guessLine[column++] = ' ';
+        }
+    }
+
+    /**
+     * @return the cryptogram this renders
+     */
+    public Cryptogram getCryptogram() {
+        return cryptogram;
+    }
+
+    /**
+     * Shows a guess for every place a symbol appears
+     * @param symbol the index of the cypher symbol within the alphabet
+     * @param guess the plaintext guessed for it
+     */
+    public void setGuess(int symbol, char guess) {
+        int width = cryptogram.getSymbol(symbol).length();
+        for (int position : cryptogram.getSymbolPositions(symbol)) {
+            int column = columns[position];
+            guessLine[column] = guess;
+            for (int c = 1; c < width; c++) {
+                guessLine[column + c] = ' ';
+            }
+        }
+    }
+
+    /**
+     * Shows a symbol as not guessed again
+     * @param symbol the index of the cypher symbol within the alphabet
+     */
+    public void clearGuess(int symbol) {
+        int width = cryptogram.getSymbol(symbol).length();
+        for (int position : cryptogram.getSymbolPositions(symbol)) {
+            int column = columns[position];
+            for (int c = 0; c < width; c++) {
+                guessLine[column + c] = '_';
+            }
+        }
+    }
+
+    /**
+     * Appends the cyphertext and the guesses, each on a line of its own
+     * @param out where to append them
+     * @return out
+     */
+    public StringBuilder render(StringBuilder out) {
+        out.ensureCapacity(out.length() + cypherLine.length() + guessLine.length + 26);
+        return out.append("\nCyphertext: ").append(cypherLine)
+                .append("\nPlayertext: ").append(guessLine);
+    }
+}
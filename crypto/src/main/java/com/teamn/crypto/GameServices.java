@@ -0,0 +1,228 @@
+package com.teamn.crypto;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The state shared by every game session in a JVM: the player store, the leaderboard, the
+ * pool of pre-generated cryptograms and the auto saver, plus where games are saved. All of
+ * its methods can be called from any number of sessions at once.
+ */
+public class GameServices implements Closeable {
+
+    private final Path directory;
+    private final PlayerStore playerStore;
+    private final CryptogramPool cryptogramPool;
+    private final AutoSaver autoSaver;
+    private final GameCodec codec = new GameCodec();
+    private volatile AbstractLeaderBoard leaderBoard;
+
+    /**
+     * Opens the player store in a directory, which is also where games are saved. If the
+     * player store is corrupt it is started afresh.
+     * @param directory where the players and saved games are kept
+     * @param sentencesFile the phrases file cryptograms are generated from
+     * @throws IOException if the player store can neither be opened nor created
+     */
+    public GameServices(Path directory, String sentencesFile) throws IOException {
+        this.directory = directory;
+        this.playerStore = openPlayerStore(directory.resolve("players"));
+        this.cryptogramPool = new CryptogramPool(sentencesFile, 8, 2);
+        this.autoSaver = new AutoSaver(directory, 1, TimeUnit.SECONDS);
+    }
+
+    private static PlayerStore openPlayerStore(Path base) throws IOException {
+        try {
+            return PlayerStore.open(base);
+        } catch (IOException e) {
+            System.out.println("The file containing player information is corrupted. Previous players not loaded.");
+            return PlayerStore.recreate(base);
+        }
+    }
+
+    /**
+     * @return the store all players are kept in
+     */
+    public PlayerStore getPlayerStore() {
+        return playerStore;
+    }
+
+    /**
+     * @return the pool new games take their cryptograms from
+     */
+    public CryptogramPool getCryptogramPool() {
+        return cryptogramPool;
+    }
+
+    /**
+     * @return the auto saver shared by every game
+     */
+    public AutoSaver getAutoSaver() {
+        return autoSaver;
+    }
+
+    /**
+     * @param username a username
+     * @return the player with that username, or null if there isn't one
+     */
+    public Player findPlayer(String username) {
+        try {
+            return playerStore.get(username);
+        } catch (IOException e) {
+            System.out.println(String.format("Could not read file %s", username));
+            return null;
+        }
+    }
+
+    /**
+     * Creates a player, unless another session created one with the same username first
+     * @param username the new player's username
+     * @return the player with that username
+     */
+    public synchronized Player createPlayer(String username) {
+        Player player = findPlayer(username);
+        if (player != null) return player;
+
+        player = new Player(username);
+        try {
+            playerStore.add(player);
+        } catch (IOException e) {
+            System.out.println("Could not save new player " + username);
+        }
+        AbstractLeaderBoard board = leaderBoard;
+        if (board != null) board.add(player);
+        return player;
+    }
+
+    /**
+     * Renders the leaderboard, building it from every player the first time it is asked for
+     * @return the printable leaderboard
+     */
+    public String printableLeaderBoard() {
+        AbstractLeaderBoard board = getLeaderBoard();
+        synchronized (board) {
+            board.update();
+            return board.printableLeaderBoard();
+        }
+    }
+
+    private AbstractLeaderBoard getLeaderBoard() {
+        AbstractLeaderBoard board = leaderBoard;
+        if (board != null) return board;
+
+        synchronized (this) {
+            if (leaderBoard == null) {
+                board = new ShardedLeaderBoard(10);
+                try {
+                    for (Player p : playerStore.getPlayers()) {
+                        board.add(p);
+                    }
+                } catch (IOException e) {
+                    System.out.println("The file containing player information is corrupted. Previous players not loaded.");
+                }
+                leaderBoard = board;
+            }
+            return leaderBoard;
+        }
+    }
+
+    /**
+     * @param username a username
+     * @return the file the player's game is saved to
+     */
+    public Path saveFileFor(String username) {
+        return directory.resolve(username + ".txt");
+    }
+
+    /**
+     * @param username a username
+     * @return the file the player's game is auto saved to, apart from their own save
+     */
+    public Path autoSaveFileFor(String username) {
+        return autoSaver.fileFor(username);
+    }
+
+    /**
+     * @param username a username
+     * @return true if the player has an auto save written no earlier than their own save, so
+     * it is the one to continue from
+     */
+    public boolean autoSaveIsLatest(String username) {
+        Path autoSave = autoSaveFileFor(username);
+        Path save = saveFileFor(username);
+        try {
+            return Files.exists(autoSave) && (!Files.exists(save)
+                    || Files.getLastModifiedTime(autoSave).compareTo(Files.getLastModifiedTime(save)) >= 0);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Saves a game now. The file is replaced atomically, so a crash while saving leaves the
+     * previous save intact.
+     * @param game the game to save
+     * @throws IOException if the game could not be saved
+     */
+    public void saveGame(Game game) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        synchronized (game) {
+            codec.write(game, new DataOutputStream(bytes));
+        }
+        SaveFile.write(saveFileFor(game.getCurrentPlayer().getUsername()), bytes.toByteArray());
+    }
+
+    /**
+     * Loads a player's saved game and reattaches it to the up to date player. Only games
+     * written by GameCodec can be read; a game saved with Java serialization by the original
+     * version is treated like a corrupt save.
+     * @param username the player whose game is to be loaded
+     * @return the game, or null if there is no readable save
+     */
+    public Game loadGame(String username) {
+        return loadGame(saveFileFor(username));
+    }
+
+    /**
+     * Loads a player's auto saved game, in the same way as loadGame
+     * @param username the player whose game is to be loaded
+     * @return the game, or null if there is no readable auto save
+     */
+    public Game loadAutoSave(String username) {
+        return loadGame(autoSaveFileFor(username));
+    }
+
+    private Game loadGame(Path file) {
+        Game loadedGame;
+        try {
+            byte[] contents = Files.readAllBytes(file);
+
+            if (SaveFile.hasHeader(contents)) {
+                byte[] payload = SaveFile.verify(contents); // checked before anything is decoded
+                loadedGame = codec.read(new DataInputStream(new ByteArrayInputStream(payload)));
+            } else {
+                loadedGame = codec.read(new DataInputStream(new ByteArrayInputStream(contents)));
+            }
+        } catch (IOException e) {
+            return null;
+        }
+
+        Player player = findPlayer(loadedGame.getCurrentPlayer().getUsername());
+        if (player != null) loadedGame.setCurrentPlayer(player);
+        return loadedGame;
+    }
+
+    /**
+     * Stops generating cryptograms, writes any games waiting to be auto saved and closes
+     * the player store
+     * @throws IOException if the player store could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        cryptogramPool.shutdown();
+        autoSaver.close();
+        playerStore.close();
+    }
+}
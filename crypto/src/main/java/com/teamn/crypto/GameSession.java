@@ -0,0 +1,442 @@
+package com.teamn.crypto;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+/**
+ * One player's conversation with the game, independent of where its input comes from. The
+ * session is a state machine driven a line at a time: each line of input is handled
+ * according to what the player was last asked, and the text to show them in response
+ * (ending with the next prompt) is returned. The console and the network servers all drive
+ * the same sessions, sharing the players, leaderboard and cryptograms through GameServices.
+ */
+public class GameSession {
+
+    /**
+     * What the session is waiting for the player to enter
+     */
+    enum State {
+        USERNAME, CONTINUE_SAVED_GAME, GAME_TYPE, MENU, ENTER_CYPHER, ENTER_PLAIN,
+        UNDO_CYPHER, HINT, OVERWRITE_SAVE, FINISHED
+    }
+
+    private final static Pattern USERNAME = Pattern.compile("[A-Za-z0-9_-]{1,32}");
+
+    private final GameServices services;
+    private State state;
+    private Player player;
+    private Game game;
+    private boolean allowGuesses;
+    private String cypherchar; // the symbol a guess is being entered for
+
+    /**
+     * @param services the state shared with every other session
+     */
+    public GameSession(GameServices services) {
+        this.services = services;
+    }
+
+    /**
+     * Starts the session
+     * @return the welcome message and the first prompt
+     */
+    public synchronized String start() {
+        StringBuilder out = new StringBuilder();
+        out.append("\n################################\n");
+        out.append("###### Group N Cryptogram ######\n");
+        out.append("################################\n\n");
+        return promptUsername(out).toString();
+    }
+
+    /**
+     * Handles one line of input from the player
+     * @param line the line, without its line terminator
+     * @return what to show the player in response
+     */
+    public synchronized String handle(String line) {
+        StringBuilder out = new StringBuilder();
+        String input = line.trim();
+        switch (state) {
+            case USERNAME:
+                login(input, out);
+                break;
+            case CONTINUE_SAVED_GAME:
+                continueSavedGame(input, out);
+                break;
+            case GAME_TYPE:
+                chooseGameType(input, out);
+                break;
+            case MENU:
+                chooseAction(input, out);
+                break;
+            case ENTER_CYPHER:
+            case UNDO_CYPHER:
+                chooseCypherChar(input, out);
+                break;
+            case ENTER_PLAIN:
+                enterLetter(input, out);
+                break;
+            case HINT:
+                String message = game.giveHint(input.toUpperCase());
+                if (message != null) out.append(message).append('\n');
+                showMenu(out);
+                break;
+            case OVERWRITE_SAVE:
+                overwriteSave(input, out);
+                break;
+            case FINISHED:
+                break;
+        }
+        return out.toString();
+    }
+
+    /**
+     * @return true once the player has chosen to exit
+     */
+    public synchronized boolean isFinished() {
+        return state == State.FINISHED;
+    }
+
+    /**
+     * @return what the session is waiting for
+     */
+    synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return the game being played, or null before one has started
+     */
+    synchronized Game getGame() {
+        return game;
+    }
+
+    private StringBuilder promptUsername(StringBuilder out) {
+        state = State.USERNAME;
+        return out.append("Enter your username: ");
+    }
+
+    /**
+     * Takes a name from the user and loads the appropriate Player object
+     */
+    private void login(String input, StringBuilder out) {
+        if (input.isEmpty() || input.split("\\s+").length != 1) {
+            out.append("Sorry, your username must be exactly one word and contain no whitespace.\n");
+            promptUsername(out);
+            return;
+        }
+        if (!USERNAME.matcher(input).matches()) { // it names the player's save files
+            out.append("Sorry, your username may only contain letters, digits, '_' and '-', and be at most 32 characters long.\n");
+            promptUsername(out);
+            return;
+        }
+
+        player = services.findPlayer(input);
+        if (player != null) {
+            out.append("Loaded player: ").append(input).append('\n');
+        } else {
+            out.append("Could not find an existing player called ").append(input)
+                    .append("\nCreating new player: ").append(input).append('\n');
+            player = services.createPlayer(input);
+        }
+
+        if (Files.exists(services.saveFileFor(player.getUsername())) || Files.exists(services.autoSaveFileFor(player.getUsername()))) {
+            out.append("You were part of the way through a game when you last played. Would you like to continue this game?\nType 'yes' or 'no' ");
+            state = State.CONTINUE_SAVED_GAME;
+        } else {
+            promptGameType(out);
+        }
+    }
+
+    private void continueSavedGame(String input, StringBuilder out) {
+        if (input.equalsIgnoreCase("yes")) {
+            boolean fromAutoSave = services.autoSaveIsLatest(player.getUsername());
+            Game loaded = fromAutoSave ? services.loadAutoSave(player.getUsername()) : services.loadGame(player.getUsername());
+            if (loaded != null) {
+                game = loaded;
+                if (!fromAutoSave) { // the save is used up, and any auto save is of an older game
+                    try {
+                        Files.deleteIfExists(services.saveFileFor(player.getUsername()));
+                    } catch (IOException e) {
+                        // the player will be offered it again
+                    }
+                    services.getAutoSaver().discard(game);
+                }
+                game.setAutoSaver(services.getAutoSaver());
+                allowGuesses = true;
+                showMenu(out);
+            } else {
+                out.append("Game file is corrupt, cannot load the game. Starting a new game instead ...\n");
+                promptGameType(out);
+            }
+        } else if (input.equalsIgnoreCase("no")) {
+            promptGameType(out);
+        } else {
+            out.append("Invalid command, please type 'yes' or 'no'\n");
+        }
+    }
+
+    private void promptGameType(StringBuilder out) {
+        out.append("Would you like to play a letter cryptogram or a number cryptogram? (Type either L or N)\n");
+        state = State.GAME_TYPE;
+    }
+
+    private void chooseGameType(String input, StringBuilder out) {
+        char firstChar = input.isEmpty() ? ' ' : Character.toUpperCase(input.charAt(0));
+        if (firstChar != 'L' && firstChar != 'N') {
+            out.append("Input not recognised, must enter either L or N\n");
+            promptGameType(out);
+            return;
+        }
+
+        allowGuesses = true;
+        game = new Game(player, services.getCryptogramPool());
+        game.setAutoSaver(services.getAutoSaver());
+        game.generateCryptogram(firstChar == 'L' ? Game.GameType.LETTER : Game.GameType.NUMBER);
+        showMenu(out);
+    }
+
+    /**
+     * Checks whether the game has just been finished, then shows the game state and the menu
+     */
+    private void showMenu(StringBuilder out) {
+        if (allowGuesses && game.hasGuessesForAllCypherCharacters()) {
+            if (game.userGuessesAreCorrect()) {
+                out.append("\n****** You have successfully completed the cryptogram! ******\n\n");
+                allowGuesses = false;
+                services.getAutoSaver().discard(game);
+            } else {
+                out.append("\n****** Your cryptogram solution is incorrect! ******\n\n");
+            }
+        }
+
+        out.append(game.renderGameState()).append('\n');
+        out.append("\nWhat would you like to do?\n");
+        if (allowGuesses) {
+            out.append("\t1) Enter a letter\n");
+            out.append("\t2) Undo a letter\n");
+            out.append("\t3) Save game\n");
+            out.append("\t4) Get a hint\n");
+        }
+        out.append("\t5) Generate a new cryptogram (stop playing current game)\n");
+        out.append("\t6) Exit the program\n");
+        out.append("\t7) View leaderboard\n");
+        out.append("\t8) Show letter frequencies\n");
+        out.append("\t9) Show solution (give up!)\n");
+        if (allowGuesses)
+            out.append("Or make several moves at once, e.g. G X=E; G Q=T; U Z\n");
+        promptChoice(out);
+    }
+
+    private void promptChoice(StringBuilder out) {
+        out.append("\nChoice: \n");
+        state = State.MENU;
+    }
+
+    private void chooseAction(String input, StringBuilder out) {
+        if (MoveBatch.looksLikeBatch(input)) {
+            makeMoves(input, out);
+            return;
+        }
+
+        int minInput = allowGuesses ? 1 : 5;
+        int choice;
+        try {
+            choice = Integer.parseInt(input.split("\\s+")[0]);
+        } catch (NumberFormatException e) {
+            choice = 0;
+        }
+        if (choice < minInput || choice > App.Action.values().length) {
+            out.append("invalid option chosen - choose an option between ").append(minInput)
+                    .append(" and ").append(App.Action.values().length).append('\n');
+            promptChoice(out);
+            return;
+        }
+
+        out.append('\n');
+        switch (App.Action.values()[choice - 1]) {
+            case ENTER_LETTER:
+                out.append("What cypher character are you making a guess for?\n");
+                state = State.ENTER_CYPHER;
+                break;
+            case UNDO_LETTER:
+                out.append("Which cypher character do you want to undo?\n");
+                state = State.UNDO_CYPHER;
+                break;
+            case SAVE_GAME:
+                saveGame(out);
+                break;
+            case HINT_REQUEST:
+                out.append("enter a letter you would like a hint for\n");
+                state = State.HINT;
+                break;
+            case GENERATE_NEW_CRYPTOGRAM: // the current game is abandoned, so is its auto save
+                services.getAutoSaver().discard(game);
+                promptGameType(out);
+                break;
+            case EXIT_GAME:
+                out.append("\n################################\n");
+                out.append("############ Goodbye ###########\n");
+                out.append("################################\n\n");
+                state = State.FINISHED;
+                break;
+            case VIEW_LEADERBOARD:
+                out.append(services.printableLeaderBoard()).append('\n');
+                showMenu(out);
+                break;
+            case SHOW_FREQUENCIES:
+                appendFrequencies(out);
+                showMenu(out);
+                break;
+            case SHOW_SOLUTION:
+                out.append("Cryptogram solution: ").append(game.getCryptogram().getPhrase()).append('\n');
+                services.getAutoSaver().discard(game);
+                allowGuesses = false;
+                showMenu(out);
+                break;
+        }
+    }
+
+    /**
+     * Takes the cypher character a guess is being entered for, or undone
+     */
+    private void chooseCypherChar(String input, StringBuilder out) {
+        boolean undo = state == State.UNDO_CYPHER;
+        String symbol = input.split("\\s+")[0].toUpperCase();
+        if (!game.isValidCypherCharacter(symbol)) {
+            out.append('"').append(symbol).append("\" is not in the cyphers alphabet, try again!\n");
+        } else if (!game.cryptogramContainsCharacter(symbol)) {
+            out.append(undo ? "The cryptogram does not contain this cypher character please pick another.\n"
+                    : "The cryptogram does not contain " + symbol + ". Please try another.\n");
+        } else if (undo) {
+            if (game.undoLetter(symbol)) {
+                out.append("Removed player choice for ").append(symbol).append('\n');
+            } else {
+                out.append("There has not been a guess made for ").append(symbol).append(" so there's nothing to undo.\n");
+            }
+            showMenu(out);
+            return;
+        } else {
+            cypherchar = symbol;
+            out.append("What character do you think it should be?\n");
+            state = State.ENTER_PLAIN;
+            return;
+        }
+        out.append(undo ? "Which cypher character do you want to undo?\n" : "What cypher character are you making a guess for?\n");
+    }
+
+    private void enterLetter(String input, StringBuilder out) {
+        String plain = input.split("\\s+")[0];
+        if (plain.length() != 1 || !Character.isAlphabetic(plain.charAt(0))) {
+            out.append("You must enter a single alphabetic character, try again!\n");
+            out.append("What character do you think it should be?\n");
+            return;
+        }
+
+        if (!game.enterLetter(cypherchar, Character.toUpperCase(plain.charAt(0))))
+            out.append("\nYou have already entered a guess for that character. " +
+                    "You will need to undo this before you can guess again.\n\n");
+        showMenu(out);
+    }
+
+    /**
+     * Makes a batch of moves typed at the menu, such as "G X=E; U Z", and shows the game
+     * once they have all been made
+     */
+    private void makeMoves(String input, StringBuilder out) {
+        if (!allowGuesses) {
+            out.append("This cryptogram is over, generate a new one to keep guessing\n");
+            promptChoice(out);
+            return;
+        }
+
+        String error;
+        try {
+            error = game.applyMoves(MoveBatch.parse(input));
+        } catch (IllegalArgumentException e) {
+            error = e.getMessage();
+        }
+        if (error != null) {
+            out.append(error).append(". None of the moves were made.\n");
+            promptChoice(out);
+        } else {
+            showMenu(out);
+        }
+    }
+
+    /**
+     * Saves the game, asking first if it would replace an existing save
+     */
+    private void saveGame(StringBuilder out) {
+        Path file = services.saveFileFor(player.getUsername());
+        if (Files.exists(file)) {
+            out.append("An existing game file has been found for this player, do you wish to overwrite it?\n");
+            state = State.OVERWRITE_SAVE;
+            return;
+        }
+
+        out.append("No previous game file detected, saving game\n");
+        try {
+            services.saveGame(game);
+            out.append("Game saved successfully!\n");
+        } catch (IOException e) {
+            out.append("A file creation failure occured\n");
+        }
+        showMenu(out);
+    }
+
+    private void overwriteSave(String input, StringBuilder out) {
+        String answer = input.split("\\s+")[0];
+        if (answer.equalsIgnoreCase("yes")) {
+            try {
+                services.saveGame(game);
+                out.append("Overwrite successful!\n");
+            } catch (IOException e) {
+                out.append("A file overwrite failure occurred\n");
+            }
+            showMenu(out);
+        } else if (answer.equalsIgnoreCase("no")) {
+            out.append("File not saved.\n");
+            showMenu(out);
+        } else {
+            out.append("Invalid command, please say 'yes' or 'no' to overwriting the existing player file\n");
+        }
+    }
+
+    /**
+     * Appends the letter frequencies of the cryptogram and of English
+     */
+    private void appendFrequencies(StringBuilder out) {
+        Cryptogram cryptogram = game.getCryptogram();
+        double[] internalFrequencies = FrequencyManager.getInternalFrequencies(cryptogram);
+
+        out.append("Cryptogram letters frequencies:\n");
+        for (int i = 0; i < internalFrequencies.length; i++) {
+            if (cryptogram.getSymbolCount(i) == 0) continue;
+            out.append(cryptogram.getSymbol(i)).append(":");
+            appendPercentage(out, internalFrequencies[i]).append("%").append("\n");
+        }
+
+        out.append("\nEnglish letters frequencies:\n");
+        for (int i = 0; i < 26; i++) {
+            out.append((char) ('A' + i)).append(":");
+            appendPercentage(out, FrequencyManager.getEnglishFrequency(i)).append("%").append("\n");
+        }
+        out.append('\n');
+    }
+
+    /**
+     * Appends a percentage to two decimal places without going through String.format
+     * @param sb where to append the percentage
+     * @param percentage the (non-negative) percentage
+     * @return sb
+     */
+    private static StringBuilder appendPercentage(StringBuilder sb, double percentage) {
+        long hundredths = Math.round(percentage * 100);
+        sb.append(hundredths / 100).append('.');
+        if (hundredths % 100 < 10) sb.append('0');
+        return sb.append(hundredths % 100);
+    }
+}
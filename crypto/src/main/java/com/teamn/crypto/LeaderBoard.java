@@ -1,73 +1,249 @@
 package com.teamn.crypto;
 
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Models a leaderboard.
+ *
+ * A leaderboard either ranks a list of players each time it is updated, or (when created
+ * without a list) keeps the players added to it ranked as their statistics change, so that
+ * updates are O(boardSize) and a player's rank can be found in O(log n).
  */
-public class LeaderBoard {
+public class LeaderBoard extends AbstractLeaderBoard {
 
     List<Player> players;
-    Player[] board;
+
+    private RankedSet<Standing> ranking;
+    private Map<Player, Standing> standings;
+    private long added;
 
     /**
      * @param boardSize the number of places on the leaderboard
      * @param players the list of players from which to form the leaderboard
      */
     public LeaderBoard(int boardSize, List<Player> players) {
+        super(boardSize);
         this.players = players;
-        board = new Player[boardSize];
     }
 
     /**
-     * Update the array representing the leaderboard
+     * Creates a leaderboard which keeps the players added to it ranked as their
+     * statistics change.
+     * @param boardSize the number of places on the leaderboard
+     */
+    public LeaderBoard(int boardSize) {
+        super(boardSize);
+        ranking = new RankedSet<>(Standing.ORDER);
+        standings = new HashMap<>();
+    }
+
+    /**
+     * Starts ranking a player. Only for leaderboards created without a list of players.
+     * @param player the player to add
+     * @throws IllegalStateException if the leaderboard ranks a list of players
+     */
+    @Override
+    public void add(Player player) {
+        if (rank(player))
+            player.addListener(this);
+    }
+
+    /**
+     * Adds a player to the ranking without listening for changes to their statistics
+     * @return true if the player wasn't already ranked
+     */
+    boolean rank(Player player) {
+        requireRanking();
+        if (standings.containsKey(player)) return false;
+
+        Standing standing = new Standing(player, added++);
+        standings.put(player, standing);
+        ranking.add(standing);
+        return true;
+    }
+
+    /**
+     * Stops ranking a player. Only for leaderboards created without a list of players.
+     * @param player the player to remove
+     * @throws IllegalStateException if the leaderboard ranks a list of players
+     */
+    @Override
+    public void remove(Player player) {
+        if (unrank(player))
+            player.removeListener(this);
+    }
+
+    /**
+     * Removes a player from the ranking
+     * @return true if the player was ranked
+     */
+    boolean unrank(Player player) {
+        requireRanking();
+        Standing standing = standings.remove(player);
+        if (standing == null) return false;
+
+        ranking.remove(standing);
+        return true;
+    }
+
+    /**
+     * @param k the number of places wanted
+     * @return the standings of the best k ranked players, best first
+     */
+    List<Standing> top(int k) {
+        requireRanking();
+        return ranking.first(k);
+    }
+
+    /**
+     * @param key a ranking key
+     * @return the number of ranked players whose current standing is better than key
+     */
+    int countAbove(RankingKey key) {
+        requireRanking();
+        return ranking.countBefore(new Standing(null, key, -1));
+    }
+
+    /**
+     * Re-ranks a player after their statistics have changed
+     * @param player the player whose statistics changed
      */
+    @Override
+    public void statsChanged(Player player) {
+        if (standings == null) return; // a list of players is ranked afresh on every update
+        Standing old = standings.get(player);
+        if (old == null) return;
+
+        Standing standing = new Standing(player, old.added);
+        if (standing.key.equals(old.key)) return;
+
+        ranking.remove(old);
+        standings.put(player, standing);
+        ranking.add(standing);
+    }
+
+    /**
+     * Gets the position of a player on the leaderboard. Only for leaderboards created
+     * without a list of players.
+     * @param player a player added to the leaderboard
+     * @return the player's rank, 1 being the best, or -1 if the player hasn't been added
+     * @throws IllegalStateException if the leaderboard ranks a list of players
+     */
+    @Override
+    public int getRank(Player player) {
+        requireRanking();
+        Standing standing = standings.get(player);
+        return standing == null ? -1 : ranking.rankOf(standing) + 1;
+    }
+
+    private void requireRanking() {
+        if (ranking == null)
+            throw new IllegalStateException("Only a leaderboard created without a list of players can add, remove or rank players");
+    }
+
+    /**
+     * Update the array representing the leaderboard. Only the best boardSize players are
+     * selected, using a bounded heap, so this is O(n log boardSize) and the list of players
+     * is left in its original order.
+     * Leaderboards created without a list of players just copy out their top places.
+     */
+    @Override
     public void update() {
-        Comparator<Player> reverse = Collections.reverseOrder(new PlayerComparator());
-        Collections.sort(players, reverse);
+        if (ranking != null) {
+            Arrays.fill(board, null);
+            List<Standing> top = ranking.first(board.length);
+            for(int i = 0; i < top.size(); i++){
+                board[i] = top.get(i).player;
+            }
+            return;
+        }
 
-        for(int i = 0; i < players.size() && i < board.length; i++){
-            board[i] = players.get(i);
+        Comparator<Player> comparator = new PlayerComparator();
+        int[] heap = new int[board.length]; // indices into players, the worst of the best at the root
+        int size = 0;
+
+        for(int i = 0; i < players.size(); i++){
+            if(size < heap.length){
+                heap[size] = i;
+                siftUp(heap, size++, comparator);
+            } else if(size > 0 && isBetter(i, heap[0], comparator)){
+                heap[0] = i;
+                siftDown(heap, size, comparator);
+            }
+        }
+
+        Arrays.fill(board, null);
+        while(size > 0){
+            board[--size] = players.get(heap[0]);
+            heap[0] = heap[size];
+            siftDown(heap, size, comparator);
         }
     }
 
     /**
-     * @return the leaderboard
+     * @return true if the player at index a ranks above the player at index b
      */
-    public Player[] getBoard() {
-        return board;
+    private boolean isBetter(int a, int b, Comparator<Player> comparator) {
+        int c = comparator.compare(players.get(a), players.get(b));
+        return c != 0 ? c > 0 : a < b;
+    }
+
+    private void siftUp(int[] heap, int i, Comparator<Player> comparator) {
+        while(i > 0){
+            int parent = (i - 1) / 2;
+            if(!isBetter(heap[parent], heap[i], comparator)) break;
+            swap(heap, parent, i);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int size, Comparator<Player> comparator) {
+        int i = 0;
+        while(true){
+            int worst = i;
+            int left = 2 * i + 1, right = left + 1;
+            if(left < size && isBetter(heap[worst], heap[left], comparator)) worst = left;
+            if(right < size && isBetter(heap[worst], heap[right], comparator)) worst = right;
+            if(worst == i) return;
+            swap(heap, i, worst);
+            i = worst;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
     }
 
     /**
-     * Produces a nicely formatted string representing the leaderboard.
-     * @return the leaderboard as a nicely formatted string
+     * A snapshot of a player's standing, so that a player can still be found in the ranking
+     * after their statistics have changed. Players with equal standing (only possible with
+     * duplicate usernames) are ordered by when they were added.
      */
-    public String printableLeaderBoard(){
-        StringBuilder sb = new StringBuilder();
-
-        if(board[0] == null){
-            sb.append("There are no players with which to make a leaderboard!");
-        } else {
-            sb.append("\t** Leaderboard **\n");
-            sb.append("------------------------------------------------\n");
-            sb.append("   Name      Proportion of cryptograms completed\n");
-
-            for(int i = 0; i < board.length; i++){
-                sb.append(i+1);
-                sb.append(")");
-                if(board[i] == null){
-                    sb.append("\n");
-                } else {
-                    sb.append(" " + board[i].getUsername());
-                    sb.append("\t");
-                    sb.append((int) (board[i].getAccuracyOfSolvedGames() * 100));
-                    sb.append("%\n");
-                }
-            }
+    static class Standing {
+
+        static final Comparator<Standing> ORDER = (a, b) -> {
+            int c = b.key.compareTo(a.key);
+            return c != 0 ? c : Long.compare(a.added, b.added);
+        };
+
+        final Player player;
+        final RankingKey key;
+        final long added;
+
+        Standing(Player player, long added) {
+            this(player, player.getRankingKey(), added);
         }
 
-        return sb.toString();
+        Standing(Player player, RankingKey key, long added) {
+            this.player = player;
+            this.key = key;
+            this.added = added;
+        }
     }
 }
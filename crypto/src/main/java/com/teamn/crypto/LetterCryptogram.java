@@ -7,48 +7,53 @@ import java.util.*;
  */
 public class LetterCryptogram extends Cryptogram{
 
+    private final static String[] SYMBOLS = new String[26];
+    static {
+        for (int i = 0; i < SYMBOLS.length; i++) {
+            SYMBOLS[i] = String.valueOf((char) (ASCII_BASE_ALPHABET + i));
+        }
+    }
+    private final static List<String> ALPHABET = Collections.unmodifiableList(Arrays.asList(SYMBOLS));
+
     public LetterCryptogram(String sentencesFile) {
         super(sentencesFile);
     }
 
+    public LetterCryptogram(PhraseRetriever phraseRetriever) {
+        super(phraseRetriever);
+    }
+
     /**
-     * Encrypts the given string with a randomly generated character allocation.
-     * @return the encrypted string
+     * Restores a previously saved cryptogram
      */
-    protected List<String> encryptString() {
-        cypherText = new ArrayList<>();
-        List<Integer> characterAllocations = this.generateRandomCharacterAllocations(this.getAlphabet().size());
-
-        correctness = new HashMap<>();   //get correct mappings
-
-        for (char c: phrase.toCharArray()) {
-            if (c == ' ') {
-                cypherText.add(""+c);
-            } else {
-                cypherText.add(this.getAlphabet().get(characterAllocations.get(c-Cryptogram.ASCII_BASE_ALPHABET)));
-
-                String cypher = this.getAlphabet().get(characterAllocations.get(c-Cryptogram.ASCII_BASE_ALPHABET));
-                if(!correctness.containsKey(Character.toUpperCase(c))) {
-                    correctness.put(cypher, c+"");
-                }
-            }
-        }
+    LetterCryptogram(int[] key, byte[] cypherSymbols) {
+        super(key, cypherSymbols);
+    }
 
-//        System.out.println(correctness.keySet() + "\n" + correctness.values());
+    @Override
+    protected int getAlphabetSize() {
+        return SYMBOLS.length;
+    }
+
+    @Override
+    public String getSymbol(int index) {
+        return SYMBOLS[index];
+    }
 
-        return cypherText;
+    @Override
+    public int getSymbolIndex(String symbol) {
+        if (symbol == null || symbol.length() != 1) return -1;
+        int index = symbol.charAt(0) - ASCII_BASE_ALPHABET;
+        return index >= 0 && index < SYMBOLS.length ? index : -1;
     }
 
     /**
      * Gets the current alphabet used
-     * @return the current alphabet
+     * @return the current alphabet (shared and unmodifiable)
      */
     @Override
     public List<String> getAlphabet() {
-        List<String> alphabet = new ArrayList<>();
-        for (Character c: "ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray()) {
-            alphabet.add(c.toString());
-        } return alphabet;
+        return ALPHABET;
     }
 
 }
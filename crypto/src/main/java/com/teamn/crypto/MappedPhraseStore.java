@@ -0,0 +1,98 @@
+package com.teamn.crypto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only, memory-mapped view of a phrases file, using the offsets of its PhraseIndex.
+ * Only the bytes of the chosen line are copied out of the mapping, so the corpus can be far
+ * larger than the heap.
+ */
+public class MappedPhraseStore {
+
+    private final static int SEGMENT_BITS = 30; // files are mapped in 1GB segments
+
+    private final PhraseIndex index;
+    private final int segmentBits;
+    private final MappedByteBuffer[] corpus;
+
+    private MappedPhraseStore(PhraseIndex index, int segmentBits, MappedByteBuffer[] corpus) {
+        this.index = index;
+        this.segmentBits = segmentBits;
+        this.corpus = corpus;
+    }
+
+    /**
+     * Maps a phrases file, building its index first if needed.
+     * @param corpus the phrases file
+     * @return the mapped store
+     * @throws IOException if the corpus cannot be read or mapped
+     */
+    public static MappedPhraseStore open(Path corpus) throws IOException {
+        return open(corpus, SEGMENT_BITS);
+    }
+
+    /**
+     * @param segmentBits log2 of the size of each mapped segment, small in tests so lines
+     * cross segments
+     */
+    static MappedPhraseStore open(Path corpus, int segmentBits) throws IOException {
+        return new MappedPhraseStore(PhraseIndex.open(corpus), segmentBits, map(corpus, segmentBits));
+    }
+
+    /**
+     * @return the number of lines in the corpus
+     */
+    public int getLineCount() {
+        return index.getLineCount();
+    }
+
+    /**
+     * Reads a single line from the mapped corpus, without its line terminator. A line within
+     * one segment is copied out in bulk, only one crossing into the next is copied a byte at
+     * a time.
+     * @param index the line number
+     * @return the line
+     */
+    public String readLine(int index) {
+        long start = this.index.getLineStart(index);
+        byte[] line = new byte[(int) (this.index.getLineStart(index + 1) - start)];
+
+        MappedByteBuffer segment = corpus[(int) (start >>> segmentBits)];
+        int offset = (int) (start & ((1L << segmentBits) - 1));
+        if (offset + line.length <= segment.capacity()) {
+            ByteBuffer view = segment.duplicate(); // own position, so reads can run concurrently
+            view.position(offset);
+            view.get(line);
+        } else {
+            for (int i = 0; i < line.length; i++) {
+                line[i] = byteAt(start + i);
+            }
+        }
+        return PhraseIndex.decodeLine(line, 0, line.length);
+    }
+
+    private byte byteAt(long position) {
+        return corpus[(int) (position >>> segmentBits)].get((int) (position & ((1L << segmentBits) - 1)));
+    }
+
+    /**
+     * Maps a whole file read-only, one segment per 2^segmentBits bytes.
+     */
+    private static MappedByteBuffer[] map(Path file, int segmentBits) throws IOException {
+        long segmentSize = 1L << segmentBits;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + segmentSize - 1) >>> segmentBits)];
+            for (int i = 0; i < segments.length; i++) {
+                long from = (long) i << segmentBits;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(segmentSize, size - from));
+            }
+            return segments;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.teamn.crypto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A number of guesses and undos submitted together, written as commands separated by
+ * semicolons: "G X=E" guesses E for the cypher symbol X and "U Z" undoes the guess for Z,
+ * so "G X=E; G Q=T; U Z" makes three moves. Game applies a batch all at once.
+ */
+public class MoveBatch {
+
+    /**
+     * One guess or undo
+     */
+    static final class Move {
+        final String symbol;
+        final char plaintext; // 0 for an undo
+
+        Move(String symbol, char plaintext) {
+            this.symbol = symbol;
+            this.plaintext = plaintext;
+        }
+
+        boolean isUndo() {
+            return plaintext == 0;
+        }
+    }
+
+    private final List<Move> moves;
+
+    private MoveBatch(List<Move> moves) {
+        this.moves = Collections.unmodifiableList(moves);
+    }
+
+    /**
+     * @param line a line of input
+     * @return true if the line is written as a batch of moves, rather than a menu choice
+     */
+    public static boolean looksLikeBatch(String line) {
+        String input = line.trim();
+        if (input.length() < 2) return false;
+        char command = Character.toUpperCase(input.charAt(0));
+        return (command == 'G' || command == 'U') && Character.isWhitespace(input.charAt(1));
+    }
+
+    /**
+     * Parses a batch of moves. Symbols and letters are read case insensitively.
+     * @param line the commands, separated by semicolons
+     * @return the moves, in the order they were written
+     * @throws IllegalArgumentException describing the first command that could not be read
+     */
+    public static MoveBatch parse(String line) {
+        List<Move> moves = new ArrayList<>();
+        for (String command : line.split(";")) {
+            String text = command.trim();
+            if (text.isEmpty()) continue; // allows a trailing semicolon
+
+            char kind = Character.toUpperCase(text.charAt(0));
+            String args = text.substring(1).trim();
+            if (text.length() < 2 || !Character.isWhitespace(text.charAt(1)) || args.isEmpty()) {
+                throw new IllegalArgumentException("Could not read \"" + text + "\"");
+            }
+
+            if (kind == 'G') {
+                int equals = args.indexOf('=');
+                String symbol = equals < 0 ? "" : args.substring(0, equals).trim();
+                String plain = equals < 0 ? "" : args.substring(equals + 1).trim();
+                if (symbol.isEmpty() || plain.length() != 1 || !Character.isAlphabetic(plain.charAt(0)))
+                    throw new IllegalArgumentException("A guess is written G <symbol>=<letter>, not \"" + text + "\"");
+                moves.add(new Move(symbol.toUpperCase(), Character.toUpperCase(plain.charAt(0))));
+            } else if (kind == 'U') {
+                if (args.split("\\s+").length != 1)
+                    throw new IllegalArgumentException("An undo is written U <symbol>, not \"" + text + "\"");
+                moves.add(new Move(args.toUpperCase(), (char) 0));
+            } else {
+                throw new IllegalArgumentException("Unknown command \"" + text + "\", use G or U");
+            }
+        }
+        if (moves.isEmpty()) throw new IllegalArgumentException("No moves given");
+        return new MoveBatch(moves);
+    }
+
+    /**
+     * @return the moves, in the order they are applied
+     */
+    List<Move> getMoves() {
+        return moves;
+    }
+
+    /**
+     * @return the number of moves in the batch
+     */
+    public int size() {
+        return moves.size();
+    }
+}
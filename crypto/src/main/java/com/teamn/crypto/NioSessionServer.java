@@ -0,0 +1,317 @@
+package com.teamn.crypto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves game sessions over the same line protocol as SessionServer, but without a thread
+ * per connection. A single event loop thread accepts connections, reads whatever bytes have
+ * arrived and writes responses as sockets become writable, so idle players cost no thread at
+ * all. Complete lines are handed to a small pool of workers, which run them through the
+ * connection's GameSession one at a time and in order, since handling a move may touch the
+ * disk (saving a game).
+ *
+ * A client that sends faster than it reads is slowed down rather than buffered without
+ * limit: a connection is not read from while it has lines waiting to be handled or output
+ * waiting to be written, and a worker stops handling its lines once MAX_OUTPUT_BYTES of
+ * responses are unwritten, carrying on when the socket has drained them.
+ */
+public class NioSessionServer implements Closeable {
+
+    final static int MAX_OUTPUT_BYTES = 64 * 1024;
+
+    private final GameServices services;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final ExecutorService workers;
+    private final Queue<Connection> writable = new ConcurrentLinkedQueue<>(); // connections with new output
+    private final AtomicLong unwrittenBytes = new AtomicLong(); // over every connection
+    private final Thread loop;
+
+    /**
+     * Starts listening on a local port
+     * @param services the state shared by every session
+     * @param port the port to listen on, or 0 for any free port
+     * @param workerThreads the number of threads running sessions' input
+     * @throws IOException if the port cannot be bound
+     */
+    public NioSessionServer(GameServices services, int port, int workerThreads) throws IOException {
+        this.services = services;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        this.workers = Executors.newFixedThreadPool(workerThreads, r -> {
+            Thread t = new Thread(r, "nio-session-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        this.loop = new Thread(this::runEventLoop, "nio-session-loop");
+        loop.start();
+    }
+
+    /**
+     * @return the port the server is listening on
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Waits until the server is closed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void join() throws InterruptedException {
+        loop.join();
+    }
+
+    /**
+     * @return the number of response bytes waiting to be written, over every connection
+     */
+    long getUnwrittenBytes() {
+        return unwrittenBytes.get();
+    }
+
+    /**
+     * Stops accepting connections, closes every open one and lets the workers finish the
+     * line they are handling. Workers are never interrupted, as an interrupt during a write
+     * to the shared player log would close the log for everyone.
+     */
+    @Override
+    public void close() throws IOException {
+        serverChannel.close();
+        selector.wakeup();
+        try {
+            loop.join();
+            workers.shutdown();
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runEventLoop() {
+        ByteBuffer readBuffer = ByteBuffer.allocate(8 * 1024);
+        try {
+            while (serverChannel.isOpen()) {
+                selector.select();
+
+                Connection ready;
+                while ((ready = writable.poll()) != null) {
+                    if (ready.key.isValid()) ready.updateInterest();
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (!key.isValid()) continue;
+                        if (key.isAcceptable()) accept();
+                        if (key.isValid() && key.isReadable()) ((Connection) key.attachment()).read(readBuffer);
+                        if (key.isValid() && key.isWritable()) ((Connection) key.attachment()).write();
+                    } catch (IOException | CancelledKeyException e) {
+                        if (key.attachment() != null) ((Connection) key.attachment()).close();
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            System.out.println("Session event loop stopped: " + e.getMessage());
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() != null) ((Connection) key.attachment()).close();
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                // nothing left to release
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) return;
+
+        channel.configureBlocking(false);
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        connection.send(connection.session.start());
+        connection.updateInterest();
+    }
+
+    /**
+     * One client connection. Bytes are only read and written by the event loop; lines are
+     * only handled by one worker at a time.
+     */
+    private class Connection {
+
+        private final SocketChannel channel;
+        private final GameSession session = new GameSession(services);
+        private final ByteArrayOutputStream partialLine = new ByteArrayOutputStream();
+        private final Queue<String> lines = new ConcurrentLinkedQueue<>();
+        private final Queue<ByteBuffer> output = new ConcurrentLinkedQueue<>();
+        private SelectionKey key;
+        private boolean scheduled; // a worker is handling this connection's lines, guarded by this
+        private int outputBytes; // bytes in output not yet transmitted, guarded by this
+        private boolean closed; // guarded by this
+        private volatile boolean closeWhenWritten;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Reads what has arrived, splits it into lines and schedules them to be handled
+         */
+        void read(ByteBuffer buffer) throws IOException {
+            buffer.clear();
+            int read = channel.read(buffer);
+            if (read < 0) {
+                close();
+                return;
+            }
+
+            buffer.flip();
+            boolean newLines = false;
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if (b == '\n') {
+                    byte[] bytes = partialLine.toByteArray();
+                    int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+                    lines.add(new String(bytes, 0, length, StandardCharsets.UTF_8));
+                    partialLine.reset();
+                    newLines = true;
+                } else if (partialLine.size() < SessionServer.MAX_LINE_BYTES) {
+                    partialLine.write(b);
+                } else {
+                    close(); // not a player typing
+                    return;
+                }
+            }
+            if (newLines) {
+                updateInterest(); // stop reading until they have been handled
+                schedule();
+            }
+        }
+
+        /**
+         * Reads only once every line has been handled and every response written, and writes
+         * while there is output. Only called by the event loop.
+         */
+        void updateInterest() {
+            int ops = output.isEmpty() ? 0 : SelectionKey.OP_WRITE;
+            if (output.isEmpty() && lines.isEmpty()) ops |= SelectionKey.OP_READ;
+            key.interestOps(ops);
+        }
+
+        private void schedule() {
+            synchronized (this) {
+                if (scheduled) return;
+                scheduled = true;
+            }
+            try {
+                workers.execute(this::handleLines);
+            } catch (RejectedExecutionException e) {
+                close();
+            }
+        }
+
+        /**
+         * Runs on a worker: handles waiting lines in order, until there are none left or too
+         * much of their output is still unwritten
+         */
+        private void handleLines() {
+            while (true) {
+                synchronized (this) {
+                    if (lines.isEmpty() || outputBytes >= MAX_OUTPUT_BYTES) {
+                        scheduled = false;
+                        return;
+                    }
+                }
+                String line = lines.poll(); // only this worker takes lines, so there is one
+                if (closeWhenWritten || !channel.isOpen()) continue; // the player has already gone
+
+                send(session.handle(line));
+                if (session.isFinished()) closeWhenWritten = true;
+                writable.add(this);
+                selector.wakeup();
+            }
+        }
+
+        /**
+         * Queues text to be written, or drops it if the connection has been closed
+         */
+        void send(String text) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            synchronized (this) {
+                if (closed) return;
+                outputBytes += bytes.length;
+                output.add(ByteBuffer.wrap(bytes));
+            }
+            unwrittenBytes.addAndGet(bytes.length);
+        }
+
+        private void transmitted(int bytes) {
+            synchronized (this) {
+                outputBytes -= bytes;
+            }
+            unwrittenBytes.addAndGet(-bytes);
+        }
+
+        /**
+         * Writes as much pending output as the socket accepts
+         */
+        void write() throws IOException {
+            ByteBuffer next;
+            while ((next = output.peek()) != null) {
+                transmitted(channel.write(next));
+                if (next.hasRemaining()) return; // socket full, wait until it is writable again
+                output.poll();
+            }
+
+            if (closeWhenWritten) {
+                close();
+            } else {
+                updateInterest();
+                if (!lines.isEmpty()) schedule(); // the worker may have stopped for the output to drain
+            }
+        }
+
+        /**
+         * Closes the connection, discarding any output still to be transmitted
+         */
+        void close() {
+            key.cancel();
+            int discarded;
+            synchronized (this) {
+                closed = true;
+                output.clear();
+                discarded = outputBytes;
+                outputBytes = 0;
+            }
+            unwrittenBytes.addAndGet(-discarded);
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // already gone
+            }
+        }
+    }
+}
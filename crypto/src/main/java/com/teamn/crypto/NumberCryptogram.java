@@ -1,58 +1,66 @@
 package com.teamn.crypto;
 
 import java.util.*;
-import java.util.stream.IntStream;
-
-import static java.util.stream.Collectors.toList;
 
 /**
  * Represents a cryptogram where plaintext characters are mapped to numbers
  */
 public class NumberCryptogram extends Cryptogram{
 
-
+    private final static String[] SYMBOLS = new String[26];
+    static {
+        for (int i = 0; i < SYMBOLS.length; i++) {
+            SYMBOLS[i] = Integer.toString(i);
+        }
+    }
+    private final static List<String> ALPHABET = Collections.unmodifiableList(Arrays.asList(SYMBOLS));
 
     public NumberCryptogram(String sentencesFile) {
         super(sentencesFile);
     }
 
+    public NumberCryptogram(PhraseRetriever phraseRetriever) {
+        super(phraseRetriever);
+    }
+
     /**
-     * Encrypts the given string with a randomly generated number allocation.
-     * @return the encrypted string
+     * Restores a previously saved cryptogram
      */
-    protected List<String> encryptString() {
-        List<Integer> characterAllocations = this.generateRandomCharacterAllocations(this.getAlphabet().size());
-        List<String> cypherText = new ArrayList<>();
-
-        correctness = new HashMap<>();
-
-        for (Character c: this.phrase.toCharArray()) {
-            if (!c.equals(' ')) {
-                cypherText.add(characterAllocations.get(c-ASCII_BASE_ALPHABET).toString());
-
-                //fill correct mappings map
-                String cypher = characterAllocations.get(c-ASCII_BASE_ALPHABET).toString();
-                if(!correctness.containsKey(c)) {
-                    correctness.put(cypher, c+"");
-                }
-            }
-            else
-                cypherText.add(" ");
-        }
+    NumberCryptogram(int[] key, byte[] cypherSymbols) {
+        super(key, cypherSymbols);
+    }
 
-        return cypherText;
+    @Override
+    protected int getAlphabetSize() {
+        return SYMBOLS.length;
+    }
+
+    @Override
+    public String getSymbol(int index) {
+        return SYMBOLS[index];
+    }
+
+    @Override
+    public int getSymbolIndex(String symbol) {
+        if (symbol == null || symbol.isEmpty() || symbol.length() > 2) return -1;
+        if (symbol.length() == 2 && symbol.charAt(0) == '0') return -1; // no leading zeros
+
+        int index = 0;
+        for (int i = 0; i < symbol.length(); i++) {
+            char c = symbol.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            index = index * 10 + (c - '0');
+        }
+        return index < SYMBOLS.length ? index : -1;
     }
 
     /**
      * Gets the current alphabet used
-     * @return the current alphabet
+     * @return the current alphabet (shared and unmodifiable)
      */
     @Override
     public List<String> getAlphabet() {
-        List<String> alphabet = new ArrayList<>();
-        for (Integer i : IntStream.range(0, 26).boxed().collect(toList())) {
-            alphabet.add(i.toString());
-        } return alphabet;
+        return ALPHABET;
     }
 
 }
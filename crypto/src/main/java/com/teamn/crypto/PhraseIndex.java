@@ -0,0 +1,284 @@
+package com.teamn.crypto;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A line-offset index over a phrases file. The index is persisted as a sidecar file
+ * next to the corpus (corpus name + ".idx") so that it only has to be built once. The
+ * sidecar's offsets are memory-mapped and the corpus is kept open, so any line can then be
+ * fetched with a single positioned read. Use shared() rather than open() to hold each corpus
+ * open only once however many retrievers read from it.
+ *
+ * Lines end at "\n", "\r\n" or a lone "\r", the same as BufferedReader.readLine, so the
+ * index counts the same lines as the scanning fallback.
+ *
+ * Sidecar layout: magic, corpus length, corpus last-modified time, line count, followed
+ * by (line count + 1) line start offsets, the last one being the length of the corpus.
+ */
+public class PhraseIndex implements Closeable {
+
+    static final String SIDECAR_SUFFIX = ".idx";
+
+    final static int HEADER_BYTES = 8 + 8 + 8 + 4;
+
+    private final static long MAGIC = 0x4352595054494432L; // "CRYPTID2", lone '\r' ends a line
+
+    private final static ConcurrentMap<Path, PhraseIndex> SHARED = new ConcurrentHashMap<>();
+
+    private final Path corpus;
+    private final Path sidecar;
+    private final long corpusLength;
+    private final long corpusModified;
+    private final int lineCount;
+    private final LongBuffer offsets; // mapped from the sidecar, or in memory if it could not be written
+    private FileChannel corpusChannel; // opened on the first read and kept open
+
+    private PhraseIndex(Path corpus, Path sidecar, long corpusLength, long corpusModified, int lineCount, LongBuffer offsets) {
+        this.corpus = corpus;
+        this.sidecar = sidecar;
+        this.corpusLength = corpusLength;
+        this.corpusModified = corpusModified;
+        this.lineCount = lineCount;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Gets the index for a corpus shared by the whole JVM, opening it the first time and again
+     * whenever the corpus has changed. A replaced index is not closed, as other threads may
+     * still be reading from it.
+     * @param corpus the phrases file
+     * @return the index for the corpus
+     * @throws IOException if the corpus cannot be read
+     */
+    public static PhraseIndex shared(Path corpus) throws IOException {
+        Path key = corpus.toAbsolutePath().normalize();
+        PhraseIndex index = SHARED.get(key);
+        if (index != null && index.isCurrent()) return index;
+
+        synchronized (SHARED) {
+            index = SHARED.get(key);
+            if (index == null || !index.isCurrent()) {
+                index = open(key);
+                SHARED.put(key, index);
+            } return index;
+        }
+    }
+
+    /**
+     * @return true if the corpus has not changed since it was indexed
+     */
+    private boolean isCurrent() {
+        try {
+            return Files.size(corpus) == corpusLength && Files.getLastModifiedTime(corpus).toMillis() == corpusModified;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Opens the index for a corpus, building (and persisting) it first if the sidecar
+     * is missing or out of date.
+     * @param corpus the phrases file
+     * @return the index for the corpus
+     * @throws IOException if the corpus cannot be read
+     */
+    public static PhraseIndex open(Path corpus) throws IOException {
+        Path sidecar = sidecarFor(corpus);
+        long corpusLength = Files.size(corpus);
+        long corpusModified = Files.getLastModifiedTime(corpus).toMillis();
+        int lineCount = readLineCount(sidecar, corpusLength, corpusModified);
+        if (lineCount >= 0) {
+            return new PhraseIndex(corpus, sidecar, corpusLength, corpusModified, lineCount, mapOffsets(sidecar, lineCount));
+        }
+
+        long[] offsets = scanOffsets(corpus);
+        try {
+            writeSidecar(sidecar, corpusLength, corpusModified, offsets);
+            return new PhraseIndex(corpus, sidecar, corpusLength, corpusModified, offsets.length - 1, mapOffsets(sidecar, offsets.length - 1));
+        } catch (IOException e) {
+            // e.g. a read-only directory, keep the offsets in memory instead
+            return new PhraseIndex(corpus, null, corpusLength, corpusModified, offsets.length - 1, LongBuffer.wrap(offsets));
+        }
+    }
+
+    /**
+     * Maps the offsets of a sidecar. The mapping stays valid after the channel is closed.
+     */
+    private static LongBuffer mapOffsets(Path sidecar, int lineCount) throws IOException {
+        try (FileChannel channel = FileChannel.open(sidecar, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, 8L * (lineCount + 1)).asLongBuffer();
+        }
+    }
+
+    /**
+     * @param corpus the phrases file
+     * @return the path of the sidecar index file for the corpus
+     */
+    static Path sidecarFor(Path corpus) {
+        return corpus.resolveSibling(corpus.getFileName() + SIDECAR_SUFFIX);
+    }
+
+    /**
+     * @return the number of lines in the corpus
+     */
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @return the persisted sidecar, or null if the offsets are only held in memory
+     */
+    Path getSidecar() {
+        return sidecar;
+    }
+
+    /**
+     * Gets the byte offset at which a line starts. Passing getLineCount() gives the
+     * end of the last line.
+     * @param index the line number
+     * @return the offset of the start of the line within the corpus
+     */
+    long getLineStart(int index) {
+        return offsets.get(index);
+    }
+
+    /**
+     * Reads a single line from the corpus, without its line terminator. If the channel was
+     * closed under this read, e.g. because another reader was interrupted, it is reopened and
+     * the read tried again.
+     * @param index the line number
+     * @return the line
+     * @throws IOException if the corpus cannot be read
+     */
+    public String readLine(int index) throws IOException {
+        try {
+            return readLine(index, getCorpusChannel());
+        } catch (ClosedChannelException e) {
+            if (Thread.currentThread().isInterrupted()) throw e;
+            return readLine(index, getCorpusChannel());
+        }
+    }
+
+    private String readLine(int index, FileChannel channel) throws IOException {
+        long start = offsets.get(index);
+        ByteBuffer line = ByteBuffer.allocate((int) (offsets.get(index + 1) - start));
+        while (line.hasRemaining()) {
+            if (channel.read(line, start + line.position()) < 0) throw new EOFException("Corpus is shorter than its index");
+        }
+        return decodeLine(line.array(), 0, line.limit());
+    }
+
+    private synchronized FileChannel getCorpusChannel() throws IOException {
+        if (corpusChannel == null || !corpusChannel.isOpen()) {
+            corpusChannel = FileChannel.open(corpus, StandardOpenOption.READ);
+        } return corpusChannel;
+    }
+
+    /**
+     * Closes the corpus, if it has been read from. It is reopened if read from again.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (corpusChannel != null) corpusChannel.close();
+    }
+
+    /**
+     * Decodes a line of the corpus, dropping a trailing "\n", "\r\n" or "\r".
+     */
+    static String decodeLine(byte[] bytes, int from, int to) {
+        if (to > from && bytes[to - 1] == '\n') to--;
+        if (to > from && bytes[to - 1] == '\r') to--;
+        return new String(bytes, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the line count from an existing sidecar if it is complete and matches the corpus.
+     * @return the line count or -1 if the sidecar has to be (re)built
+     */
+    private static int readLineCount(Path sidecar, long corpusLength, long corpusModified) throws IOException {
+        if (!Files.isRegularFile(sidecar)) return -1;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(sidecar)))) {
+            if (in.readLong() != MAGIC) return -1;
+            if (in.readLong() != corpusLength || in.readLong() != corpusModified) return -1;
+            int lineCount = in.readInt();
+            if (lineCount < 0 || Files.size(sidecar) != HEADER_BYTES + 8L * (lineCount + 1)) return -1;
+            return lineCount;
+        } catch (EOFException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Scans the corpus once recording where every line starts.
+     * @return the line start offsets followed by the length of the corpus
+     */
+    private static long[] scanOffsets(Path corpus) throws IOException {
+        long[] offsets = new long[1024];
+        int lines = 0;
+        long position = 0;
+        boolean atLineStart = true;
+        boolean afterCr = false; // the last byte was a '\r', which a '\n' may complete
+
+        try (InputStream in = Files.newInputStream(corpus)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                for (int i = 0; i < read; i++, position++) {
+                    if (atLineStart) {
+                        if (afterCr && buffer[i] == '\n') {
+                            afterCr = false;
+                            continue; // "\r\n" is a single line terminator
+                        }
+                        if (lines == offsets.length) {
+                            long[] grown = new long[offsets.length * 2];
+                            System.arraycopy(offsets, 0, grown, 0, lines);
+                            offsets = grown;
+                        }
+                        offsets[lines++] = position;
+                        atLineStart = false;
+                    }
+                    afterCr = buffer[i] == '\r';
+                    if (buffer[i] == '\n' || afterCr) atLineStart = true;
+                }
+            }
+        }
+
+        long[] result = new long[lines + 1];
+        System.arraycopy(offsets, 0, result, 0, lines);
+        result[lines] = position;
+        return result;
+    }
+
+    /**
+     * Writes the sidecar through a temporary file so a half-written index is never picked up.
+     */
+    private static void writeSidecar(Path sidecar, long corpusLength, long corpusModified, long[] offsets) throws IOException {
+        Path tmp = Files.createTempFile(sidecar.toAbsolutePath().getParent(), sidecar.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeLong(MAGIC);
+                out.writeLong(corpusLength);
+                out.writeLong(corpusModified);
+                out.writeInt(offsets.length - 1);
+                for (long offset : offsets) {
+                    out.writeLong(offset);
+                }
+            }
+            Files.move(tmp, sidecar, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
@@ -4,18 +4,30 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.net.URISyntaxException;
+import java.net.URL;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Random;
 
 /**
- * For retrieving a random line from a file.
+ * For retrieving a random line from a file. When the file is a plain file on the classpath
+ * a persisted line index (see PhraseIndex) is used so only the chosen line is read, otherwise
+ * the file is scanned. Files given by filesystem path are memory-mapped (see MappedPhraseStore),
+ * and streams that can only be read once are reservoir sampled in a single pass.
  */
 public class PhraseRetriever {
 
     private final String PHRASES_FILE;
     private Random rand;
+    private final Path corpusPath;
+    private final boolean streamed;
+    private InputStream phraseStream;
+    private PhraseIndex index;
+    private MappedPhraseStore mappedStore;
+    private boolean sourceOpened;
     private final String[] fallbackPhrases =
             {
             "The unexamined life is not worth living",
@@ -25,8 +37,36 @@ public class PhraseRetriever {
             };
 
     public PhraseRetriever(String filename){
-        this.rand = new Random(System.currentTimeMillis());
+        this.rand = new Random(); // not seeded from the clock, retrievers made in the same millisecond would pick alike
         this.PHRASES_FILE = filename;
+        this.corpusPath = null;
+        this.streamed = false;
+    }
+
+    /**
+     * Retrieves phrases from a file on the filesystem rather than the classpath. The file is
+     * memory-mapped so it may be much larger than the heap.
+     * @param corpus the path of the phrases file
+     */
+    public PhraseRetriever(Path corpus){
+        this.rand = new Random();
+        this.PHRASES_FILE = corpus.toString();
+        this.corpusPath = corpus;
+        this.streamed = false;
+    }
+
+    /**
+     * Retrieves a phrase from a stream that can only be read once, such as stdin or a
+     * decompressing stream. The stream is consumed and closed by the first call to
+     * getRandomPhrase(), later calls return fallback phrases.
+     * @param phrases stream of phrases, one per line
+     */
+    public PhraseRetriever(InputStream phrases){
+        this.rand = new Random();
+        this.PHRASES_FILE = "<stream>";
+        this.corpusPath = null;
+        this.streamed = true;
+        this.phraseStream = phrases;
     }
 
     /**
@@ -68,6 +108,79 @@ public class PhraseRetriever {
         } return sentence;
     }
 
+    /**
+     * Gets the line index for PHRASES_FILE, shared with every other retriever of the same file.
+     * @return the index, or null if PHRASES_FILE is not a plain file (e.g. it is inside a jar)
+     */
+    private PhraseIndex getIndex() {
+        if (sourceOpened) { return index; }
+        sourceOpened = true;
+
+        URL sentencesFileUrl = getClass().getClassLoader().getResource(PHRASES_FILE);
+        if (sentencesFileUrl == null || !"file".equals(sentencesFileUrl.getProtocol())) { return null; }
+
+        try {
+            index = PhraseIndex.shared(Paths.get(sentencesFileUrl.toURI()));
+        } catch (IOException | URISyntaxException e) {
+            System.out.println(String.format("Could not index file %s",PHRASES_FILE));
+        } return index;
+    }
+
+    /**
+     * Gets the memory-mapped store for the corpus path, mapping it on first use.
+     * @return the store, or null if the file could not be read
+     */
+    private MappedPhraseStore getMappedStore() {
+        if (sourceOpened) { return mappedStore; }
+        sourceOpened = true;
+
+        try {
+            mappedStore = MappedPhraseStore.open(corpusPath);
+        } catch (IOException e) {
+            System.out.println(String.format("Could not read file %s",PHRASES_FILE));
+        } return mappedStore;
+    }
+
+    /**
+     * Gets a sentence from the PHRASES_FILE at the line number specified by index using the line index
+     * @param index is the line number of the phase to return
+     * @return A line from the file at the specified index.
+     */
+    private String getIndexedPhraseWithIndex(int index) {
+        try {
+            String sentence = corpusPath != null ? getMappedStore().readLine(index) : getIndex().readLine(index);
+            return sentence.toUpperCase();
+        } catch (IOException e) {
+            System.out.println(String.format("Could not read file %s",PHRASES_FILE));
+            return null;
+        }
+    }
+
+    /**
+     * Picks a uniformly random line from phraseStream in a single pass without knowing the
+     * number of lines up front: the n-th line replaces the current pick with probability 1/n.
+     * @return the chosen line, or null if the stream was empty or could not be read
+     */
+    private String getSampledPhrase() {
+        String sentence = null;
+        if (phraseStream == null) { return null; }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(phraseStream))){
+            String line;
+            int linesRead = 0;
+            while((line = reader.readLine()) != null) {
+                linesRead++;
+                if (this.rand.nextInt(linesRead) == 0) { sentence = line; }
+            }
+        } catch (IOException e) {
+            System.out.println(String.format("Could not read file %s",PHRASES_FILE));
+            sentence = null;
+        } finally {
+            phraseStream = null;
+        }
+        return sentence != null ? sentence.toUpperCase() : null;
+    }
+
     private String getRandomDefaultPhrase() {
         int randomIndex = this.rand.nextInt(fallbackPhrases.length);
         return this.fallbackPhrases[randomIndex].toUpperCase();
@@ -78,7 +191,27 @@ public class PhraseRetriever {
      * @return A random phrase from PHRASES_FILE.
      */
     public String getRandomPhrase() {
-        int linesInFile = getLinesInFile();
+        if (streamed) {
+            String sentence = getSampledPhrase();
+            if (sentence == null) {
+                System.out.println("\nThere was a problem reading the sentences stream." +
+                        "\nLoading fallback sentences instead...\n");
+                return getRandomDefaultPhrase();
+            } return sentence;
+        }
+
+        int linesInFile;
+        boolean indexed;
+        if (corpusPath != null) {
+            MappedPhraseStore store = getMappedStore();
+            linesInFile = store != null ? store.getLineCount() : 0;
+            indexed = true;
+        } else {
+            PhraseIndex index = getIndex();
+            linesInFile = index != null ? index.getLineCount() : getLinesInFile();
+            indexed = index != null;
+        }
+
         if (linesInFile == 0) {
             System.out.println("\nThere was a problem reading the sentences file. " +
                     "Make sure that it's present inside 'resources' and it's named 'sentences'." +
@@ -86,7 +219,7 @@ public class PhraseRetriever {
             return getRandomDefaultPhrase();
         } else {
             int randomIndex = this.rand.nextInt(linesInFile);
-            return this.getPhraseWithIndex(randomIndex);
+            return indexed ? this.getIndexedPhraseWithIndex(randomIndex) : this.getPhraseWithIndex(randomIndex);
         }
     }
 }
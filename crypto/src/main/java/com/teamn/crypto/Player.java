@@ -1,18 +1,36 @@
 package com.teamn.crypto;
 
 import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 public class Player implements Serializable{
 /**
- * A class that modes a player storing key details about their performance
+ * A class that modes a player storing key details about their performance.
+ * The counters are updated atomically so a player can be shared between game sessions.
  */
 
+    private static final long serialVersionUID = -2702958378225493081L; // as computed for the original class, so old players.txt files still load
+
+    private static final AtomicIntegerFieldUpdater<Player> CORRECT_GUESSES =
+            AtomicIntegerFieldUpdater.newUpdater(Player.class, "correctGuesses");
+    private static final AtomicIntegerFieldUpdater<Player> TOTAL_GUESSES =
+            AtomicIntegerFieldUpdater.newUpdater(Player.class, "totalGuesses");
+    private static final AtomicIntegerFieldUpdater<Player> CRYPTOGRAMS_PLAYED =
+            AtomicIntegerFieldUpdater.newUpdater(Player.class, "cryptogramsPlayed");
+    private static final AtomicIntegerFieldUpdater<Player> CRYPTOGRAMS_SOLVED =
+            AtomicIntegerFieldUpdater.newUpdater(Player.class, "cryptogramsSolved");
+
     String username; // when we start implementing different players add a constructor for this
-    int correctGuesses;
-    int totalGuesses;
+    volatile int correctGuesses;
+    volatile int totalGuesses;
 
-    int cryptogramsPlayed;
-    int cryptogramsSolved;
+    volatile int cryptogramsPlayed;
+    volatile int cryptogramsSolved;
+
+    private transient volatile List<PlayerListener> listeners;
+    private transient volatile RankingKey rankingKey;
 
     public Player(String name) {
         username = name;
@@ -22,6 +40,17 @@ public class Player implements Serializable{
         cryptogramsSolved = 0;
     }
 
+    /**
+     * Restores a previously saved player
+     */
+    Player(String name, int correctGuesses, int totalGuesses, int cryptogramsPlayed, int cryptogramsSolved) {
+        username = name;
+        this.correctGuesses = correctGuesses;
+        this.totalGuesses = totalGuesses;
+        this.cryptogramsPlayed = cryptogramsPlayed;
+        this.cryptogramsSolved = cryptogramsSolved;
+    }
+
     /**
      *
      * @param correct - if entered guess was correct
@@ -29,22 +58,59 @@ public class Player implements Serializable{
      */
     public void updateAccuracy(Boolean correct) {
         if (correct) {
-            this.correctGuesses++;
-        } this.totalGuesses++;
+            CORRECT_GUESSES.incrementAndGet(this);
+        } TOTAL_GUESSES.incrementAndGet(this);
+        statsChanged();
+    }
+
+    /**
+     * Records several guesses at once, telling listeners only once
+     * @param correct how many of the guesses were correct
+     * @param total how many guesses were made
+     */
+    void updateAccuracy(int correct, int total) {
+        CORRECT_GUESSES.addAndGet(this, correct);
+        TOTAL_GUESSES.addAndGet(this, total);
+        statsChanged();
     }
 
     /**
      * Add 1 to the current total number of cryptograms solved
      */
     public void incrementCryptogramsSolved() {
-        cryptogramsSolved++;
+        CRYPTOGRAMS_SOLVED.incrementAndGet(this);
+        statsChanged();
     }
 
     /**
      * Add 1 to the current total number of cryptograms played
      */
     public void incrementCryptogramsPlayed() {
-        cryptogramsPlayed++;
+        CRYPTOGRAMS_PLAYED.incrementAndGet(this);
+        statsChanged();
+    }
+
+    /**
+     * @param listener to be notified whenever this player's statistics change
+     */
+    public synchronized void addListener(PlayerListener listener) {
+        if (listeners == null) listeners = new CopyOnWriteArrayList<>();
+        listeners.add(listener);
+    }
+
+    /**
+     * @param listener a listener previously added with addListener
+     */
+    public synchronized void removeListener(PlayerListener listener) {
+        if (listeners != null) listeners.remove(listener);
+    }
+
+    private void statsChanged() {
+        List<PlayerListener> listeners = this.listeners;
+        if (listeners == null) return;
+        for (PlayerListener listener : listeners) {
+            listener.statsChanged(this);
+        }
     }
 
     /**
@@ -75,6 +141,18 @@ public class Player implements Serializable{
         return this.cryptogramsPlayed;
     }
 
+    /**
+     * @return what the player is ranked by on leaderboards, computed once per change of statistics
+     */
+    public RankingKey getRankingKey() {
+        RankingKey key = rankingKey;
+        if (key == null || !key.matches(cryptogramsSolved, cryptogramsPlayed)) {
+            key = RankingKey.of(this);
+            rankingKey = key;
+        }
+        return key;
+    }
+
     /**
      * @return player's username
      */
@@ -0,0 +1,32 @@
+package com.teamn.crypto;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Binary form of a player: version, username, then the four counters as varints.
+ */
+public class PlayerCodec implements Codec<Player> {
+
+    final static int VERSION = 1;
+
+    @Override
+    public void write(Player player, DataOutput out) throws IOException {
+        out.writeByte(VERSION);
+        out.writeUTF(player.getUsername());
+        VarInts.write(out, player.correctGuesses);
+        VarInts.write(out, player.totalGuesses);
+        VarInts.write(out, player.cryptogramsPlayed);
+        VarInts.write(out, player.cryptogramsSolved);
+    }
+
+    @Override
+    public Player read(DataInput in) throws IOException {
+        int version = in.readUnsignedByte();
+        if (version != VERSION) throw new IOException("Unknown player format version " + version);
+
+        String username = in.readUTF();
+        return new Player(username, VarInts.read(in), VarInts.read(in), VarInts.read(in), VarInts.read(in));
+    }
+}
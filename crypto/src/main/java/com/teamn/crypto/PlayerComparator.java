@@ -3,13 +3,12 @@ package com.teamn.crypto;
 import java.util.Comparator;
 
 /**
- * Compares players by proportion of successfully solved cryptograms
+ * Compares players by proportion of successfully solved cryptograms, exactly, breaking ties
+ * by number of cryptograms played and then username (see RankingKey)
  */
 public class PlayerComparator implements Comparator<Player> {
     @Override
     public int compare(Player p1, Player p2) {
-        int p1Accuracy = (int) (p1.getAccuracyOfSolvedGames() * 100);
-        int p2Accuracy = (int) (p2.getAccuracyOfSolvedGames() * 100);
-        return  p1Accuracy - p2Accuracy;
+        return p1.getRankingKey().compareTo(p2.getRankingKey());
     }
 }
@@ -0,0 +1,13 @@
+package com.teamn.crypto;
+
+/**
+ * Notified whenever the statistics of a Player it has been added to change.
+ */
+public interface PlayerListener {
+
+    /**
+     * Called after one of the player's statistics has changed
+     * @param player the player whose statistics changed
+     */
+    void statsChanged(Player player);
+}
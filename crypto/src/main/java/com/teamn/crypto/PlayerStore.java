@@ -0,0 +1,525 @@
+package com.teamn.crypto;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Persists players as a snapshot plus an append-only change log. A change to a player's
+ * statistics only marks the player as changed; a background writer appends one small record
+ * of each changed player's current statistics and forces the whole batch to disk at once, so
+ * game threads never wait on the disk and many changes share each force (a group commit).
+ * flush() waits until every change made so far is on disk.
+ *
+ * Once the log grows past a threshold the writer folds it into a new snapshot, streaming the
+ * old snapshot into the new one; lookups only wait for the new file to be moved into place.
+ * Opening the store replays the log tail but does not read the snapshot: players are only
+ * materialised when they are looked up, through a hash index on username stored at the end
+ * of the snapshot.
+ *
+ * Files used, for a base path "players": players.snapshot and players.log. A legacy
+ * players.txt (a serialized list of players) is imported if there is no snapshot yet.
+ *
+ * Snapshot layout: magic, player count, index offset, the player records, then the index:
+ * a power of two slot count followed by that many record offsets (0 for an empty slot),
+ * probed linearly from the slot of the username's hash.
+ */
+public class PlayerStore implements PlayerListener, Closeable {
+
+    private final static int SNAPSHOT_MAGIC = 0x504c5333; // "PLS3"
+    private final static int HEADER_BYTES = 4 + 4 + 8;
+    private final static int DEFAULT_COMPACTION_THRESHOLD = 10000;
+    private final static PlayerCodec CODEC = new PlayerCodec();
+
+    private final Path snapshotFile;
+    private final Path logFile;
+    private final int compactionThreshold;
+    private final Map<String, Player> players = new LinkedHashMap<>(); // players materialised so far
+    private int snapshotCount;
+    private long indexOffset;
+    private int indexSlots; // 0 while there is no snapshot
+    private FileChannel log;
+    private volatile int logRecords;
+
+    private final Object logLock = new Object(); // held while writing the log or compacting; taken before the store's lock
+    private final Object pendingLock = new Object();
+    private final Set<Player> pending = new LinkedHashSet<>(); // changed since their last record, guarded by pendingLock
+    private long changes; // number of changes marked so far, guarded by pendingLock
+    private long durableChanges; // number of those which are on disk, guarded by pendingLock
+    private boolean writing; // the writer has been given the pending players, guarded by pendingLock
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "player-log");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private PlayerStore(Path base, int compactionThreshold) {
+        this.snapshotFile = base.resolveSibling(base.getFileName() + ".snapshot");
+        this.logFile = base.resolveSibling(base.getFileName() + ".log");
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    /**
+     * Opens the store, replaying the log. The snapshot itself is only read on demand.
+     * @param base the path the store's files are named after
+     * @return the store
+     * @throws IOException if the files exist but cannot be read or the snapshot is corrupt
+     */
+    public static PlayerStore open(Path base) throws IOException {
+        return open(base, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Opens the store, compacting whenever the log holds more than compactionThreshold records.
+     */
+    static PlayerStore open(Path base, int compactionThreshold) throws IOException {
+        PlayerStore store = new PlayerStore(base, compactionThreshold);
+        store.load(base.resolveSibling(base.getFileName() + ".txt"));
+        return store;
+    }
+
+    /**
+     * Opens the store after discarding anything previously saved, e.g. because it was corrupt.
+     * @param base the path the store's files are named after
+     * @return the empty store
+     * @throws IOException if the old files cannot be removed
+     */
+    public static PlayerStore recreate(Path base) throws IOException {
+        PlayerStore store = new PlayerStore(base, DEFAULT_COMPACTION_THRESHOLD);
+        Files.deleteIfExists(store.snapshotFile);
+        Files.deleteIfExists(store.logFile);
+        store.openLog();
+        return store;
+    }
+
+    /**
+     * Looks up a player by username, reading only their record from disk if they have not
+     * been looked up before.
+     * @param username the player's username
+     * @return the player, or null if there is no player with that username
+     * @throws IOException if the snapshot cannot be read
+     */
+    public synchronized Player get(String username) throws IOException {
+        Player player = players.get(username);
+        if (player != null || indexSlots == 0) return player;
+
+        try (RandomAccessFile in = new RandomAccessFile(snapshotFile.toFile(), "r")) {
+            for (int slot = slotFor(username, indexSlots); ; slot = (slot + 1) & (indexSlots - 1)) {
+                in.seek(indexOffset + 4 + 8L * slot);
+                long offset = in.readLong();
+                if (offset == 0) return null;
+
+                in.seek(offset);
+                player = readPlayer(in);
+                if (player.getUsername().equals(username)) {
+                    return materialise(player);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads every player, so only use this when all of them are really needed.
+     * @return all players in the store, in the order they were added
+     * @throws IOException if the snapshot cannot be read
+     */
+    public synchronized List<Player> getPlayers() throws IOException {
+        List<Player> all = new ArrayList<>(snapshotCount + players.size());
+        Set<String> seen = new HashSet<>();
+        for (Player player : readSnapshot()) {
+            Player known = players.get(player.getUsername());
+            all.add(known != null ? known : materialise(player));
+            seen.add(player.getUsername());
+        }
+        for (Player player : players.values()) {
+            if (!seen.contains(player.getUsername())) all.add(player);
+        }
+        return all;
+    }
+
+    /**
+     * @return true if the store holds no players, without reading any
+     */
+    public synchronized boolean isEmpty() {
+        return snapshotCount == 0 && players.isEmpty();
+    }
+
+    /**
+     * Adds a new player to the store and starts recording changes to their statistics. The
+     * player is written in the background, like any change.
+     * @param player the player to add
+     * @throws IOException if the store has been closed
+     */
+    public synchronized void add(Player player) throws IOException {
+        if (log == null || !log.isOpen()) throw new IOException("Player store is closed");
+        players.put(player.getUsername(), player);
+        player.addListener(this);
+        statsChanged(player);
+    }
+
+    /**
+     * Marks a player as needing a new record and makes sure the writer will write it. Only
+     * takes a short lock of its own, so it is cheap to call with a game's lock held.
+     * @param player the player whose statistics changed
+     */
+    @Override
+    public void statsChanged(Player player) {
+        synchronized (pendingLock) {
+            pending.add(player);
+            changes++;
+            if (writing) return;
+            writing = true;
+        }
+        try {
+            writer.execute(this::writePending);
+        } catch (RejectedExecutionException e) { // closed, nothing more will be written
+            System.out.println("Could not record statistics for " + player.getUsername());
+            synchronized (pendingLock) {
+                pending.clear();
+                writing = false;
+                durableChanges = changes;
+                pendingLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits until every change made so far has been written and forced to disk, and any
+     * compaction that triggered has finished
+     */
+    public void flush() {
+        synchronized (pendingLock) {
+            long target = changes;
+            boolean interrupted = false;
+            while (durableChanges < target) {
+                try {
+                    pendingLock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs on the writer: appends a record for every pending player, forces the log once per
+     * batch, and carries on until nothing is pending. Changes made while a batch is being
+     * forced make up the next batch.
+     */
+    private void writePending() {
+        while (true) {
+            List<Player> batch;
+            long batchChanges;
+            synchronized (pendingLock) {
+                if (pending.isEmpty()) {
+                    writing = false;
+                    return;
+                }
+                batch = new ArrayList<>(pending);
+                pending.clear();
+                batchChanges = changes;
+            }
+
+            try {
+                append(batch);
+            } catch (IOException e) {
+                System.out.println("Could not record statistics for " + batch.size() + " players");
+            }
+
+            if (logRecords > compactionThreshold) { // before waking flush(), so it returns with the files at rest
+                try {
+                    compact();
+                } catch (IOException e) {
+                    System.out.println("Could not compact the player store");
+                }
+            }
+
+            synchronized (pendingLock) {
+                durableChanges = batchChanges;
+                pendingLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Writes every player to a new snapshot and empties the log. Players which have not been
+     * looked up are streamed across from the old snapshot without being kept in memory. The
+     * store's lock is only held to copy the materialised players and to swap in the new
+     * snapshot, so lookups carry on while it is written.
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void compact() throws IOException {
+        synchronized (logLock) { // nothing is appended until the log is emptied, so no change is lost with it
+            Map<String, Player> live;
+            int oldCount;
+            synchronized (this) {
+                live = new LinkedHashMap<>(players);
+                oldCount = indexSlots == 0 ? 0 : snapshotCount;
+            }
+
+            int slots = Integer.highestOneBit(Math.max(1, (oldCount + live.size()) * 2 - 1)) << 1; // at least twice the players
+            long[] index = new long[slots];
+            int count = 0;
+            long offset;
+
+            Path tmp = Files.createTempFile(snapshotFile.toAbsolutePath().getParent(), snapshotFile.getFileName().toString(), ".tmp");
+            try {
+                try (FileOutputStream fout = new FileOutputStream(tmp.toFile());
+                     DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fout))) {
+                    out.writeInt(SNAPSHOT_MAGIC);
+                    out.writeInt(0); // player count and index offset, filled in once the records are written
+                    out.writeLong(0);
+                    if (oldCount > 0) { // only compaction replaces the snapshot, so it can be read without the store's lock
+                        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+                            in.skipBytes(HEADER_BYTES);
+                            for (int i = 0; i < oldCount; i++, count++) {
+                                Player player = readPlayer(in);
+                                Player known = live.remove(player.getUsername());
+                                writeIndexed(out, known != null ? known : player, index);
+                            }
+                        } catch (EOFException e) {
+                            throw new IOException("Truncated player snapshot: " + snapshotFile, e);
+                        }
+                    }
+                    for (Player player : live.values()) { // new since the old snapshot
+                        writeIndexed(out, player, index);
+                        count++;
+                    }
+
+                    offset = out.size();
+                    out.writeInt(slots);
+                    for (long recordOffset : index) {
+                        out.writeLong(recordOffset);
+                    }
+                    out.flush();
+
+                    fout.getChannel().write(ByteBuffer.allocate(12).putInt(0, count).putLong(4, offset), 4);
+                    fout.getFD().sync();
+                }
+
+                synchronized (this) {
+                    Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    snapshotCount = count;
+                    indexOffset = offset;
+                    indexSlots = slots;
+                }
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+
+            log.truncate(0);
+            log.force(true);
+            logRecords = 0;
+        }
+    }
+
+    /**
+     * Writes a player's record to a new snapshot and puts its offset in the index
+     */
+    private static void writeIndexed(DataOutputStream out, Player player, long[] index) throws IOException {
+        int slot = slotFor(player.getUsername(), index.length);
+        while (index[slot] != 0) slot = (slot + 1) & (index.length - 1);
+        index[slot] = out.size();
+        writePlayer(out, player);
+    }
+
+    /**
+     * Writes any pending changes and closes the log. The log is only compacted if it has
+     * grown past the threshold, so closing costs nothing like reading every player; the
+     * next open replays what is left.
+     * @throws IOException if the snapshot cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        writer.shutdown();
+        try {
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (logLock) {
+            if (log == null || !log.isOpen()) return;
+            try {
+                boolean noSnapshot;
+                synchronized (this) {
+                    noSnapshot = indexSlots == 0;
+                }
+                if (logRecords > compactionThreshold || noSnapshot) compact();
+            } finally {
+                log.close();
+            }
+        }
+    }
+
+    private void load(Path legacyFile) throws IOException {
+        if (Files.exists(snapshotFile)) {
+            readHeader();
+        } else if (Files.exists(legacyFile)) {
+            importLegacy(legacyFile);
+        }
+
+        long validLength = replayLog();
+        openLog();
+        if (log.size() > validLength) { // cut off a torn tail so new records follow the last good one
+            log.truncate(validLength);
+            log.position(validLength);
+            log.force(true);
+        }
+        if (logRecords > compactionThreshold || indexSlots == 0) compact();
+    }
+
+    /**
+     * Reads the snapshot header and checks it against the size of the index
+     */
+    private void readHeader() throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(snapshotFile.toFile(), "r")) {
+            if (in.readInt() != SNAPSHOT_MAGIC) throw new IOException("Not a player snapshot: " + snapshotFile);
+            int count = in.readInt();
+            long offset = in.readLong();
+            if (count < 0 || offset < HEADER_BYTES || offset + 4 > in.length())
+                throw new IOException("Corrupt player snapshot: " + snapshotFile);
+
+            in.seek(offset);
+            int slots = in.readInt();
+            if (Integer.bitCount(slots) != 1 || slots <= count || offset + 4 + 8L * slots != in.length())
+                throw new IOException("Corrupt player snapshot index: " + snapshotFile);
+
+            snapshotCount = count;
+            indexOffset = offset;
+            indexSlots = slots;
+        } catch (EOFException e) {
+            throw new IOException("Truncated player snapshot: " + snapshotFile, e);
+        }
+    }
+
+    /**
+     * @return every player record in the snapshot, as stored
+     */
+    private List<Player> readSnapshot() throws IOException {
+        List<Player> snapshot = new ArrayList<>(snapshotCount);
+        if (indexSlots == 0) return snapshot;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            in.skipBytes(HEADER_BYTES);
+            for (int i = 0; i < snapshotCount; i++) {
+                snapshot.add(readPlayer(in));
+            }
+        } catch (EOFException e) {
+            throw new IOException("Truncated player snapshot: " + snapshotFile, e);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Replays the log, stopping at the first incomplete or damaged record (the tail of a
+     * write interrupted by a crash). Players in the log are newer than the snapshot so they
+     * are materialised straight away.
+     * @return the length of the log up to the end of the last good record
+     */
+    private long replayLog() throws IOException {
+        if (!Files.exists(logFile)) return 0;
+
+        long validLength = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(logFile)))) {
+            while (true) {
+                int length = in.readInt();
+                if (length <= 0 || length > 64 * 1024) return validLength;
+                byte[] record = new byte[length];
+                in.readFully(record);
+                if (in.readInt() != (int) checksum(record)) return validLength;
+
+                Player player = readPlayer(new DataInputStream(new ByteArrayInputStream(record)));
+                Player replaced = players.get(player.getUsername());
+                if (replaced != null) replaced.removeListener(this);
+                materialise(player);
+                logRecords++;
+                validLength += 4 + length + 4;
+            }
+        } catch (EOFException e) {
+            return validLength; // end of the log
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void importLegacy(Path legacyFile) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(legacyFile)))) {
+            for (Player player : (List<Player>) in.readObject()) {
+                materialise(player);
+            }
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Could not import " + legacyFile, e);
+        }
+    }
+
+    /**
+     * Keeps a player read from disk and starts recording changes to their statistics
+     */
+    private Player materialise(Player player) {
+        players.put(player.getUsername(), player);
+        player.addListener(this);
+        return player;
+    }
+
+    private void openLog() throws IOException {
+        log = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        log.position(log.size());
+    }
+
+    /**
+     * Appends a record of each player's current statistics to the log with one write, then
+     * forces it to disk
+     */
+    private void append(List<Player> batch) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * batch.size());
+        DataOutputStream out = new DataOutputStream(bytes);
+        ByteArrayOutputStream record = new ByteArrayOutputStream(64);
+        for (Player player : batch) {
+            record.reset();
+            writePlayer(new DataOutputStream(record), player);
+            out.writeInt(record.size());
+            record.writeTo(out);
+            out.writeInt((int) checksum(record.toByteArray()));
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        synchronized (logLock) {
+            while (buffer.hasRemaining()) {
+                log.write(buffer);
+            }
+            log.force(false);
+            logRecords += batch.size();
+        }
+    }
+
+    private static int slotFor(String username, int slots) {
+        int h = username.hashCode();
+        return (h ^ (h >>> 16)) & (slots - 1);
+    }
+
+    private static void writePlayer(DataOutput out, Player player) throws IOException {
+        CODEC.write(player, out);
+    }
+
+    private static Player readPlayer(DataInput in) throws IOException {
+        return CODEC.read(in);
+    }
+
+    private static long checksum(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, record.length);
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,208 @@
+package com.teamn.crypto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A sorted set which can also find the element at a given rank, and the rank of an element,
+ * in O(log n). Implemented as a treap whose nodes record the size of their subtree.
+ *
+ * @param <T> the type of the elements, which must not change order while in the set
+ */
+public class RankedSet<T> {
+
+    private static class Node<T> {
+        final T value;
+        final int priority;
+        int size = 1;
+        Node<T> left, right;
+
+        Node(T value, int priority) {
+            this.value = value;
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * The two subtrees a split produces
+     */
+    private static class Split<T> {
+        Node<T> before, after;
+
+        Split(Node<T> before, Node<T> after) {
+            this.before = before;
+            this.after = after;
+        }
+    }
+
+    private final Comparator<? super T> comparator;
+    private final Random rand = new Random();
+    private Node<T> root;
+
+    /**
+     * @param comparator the order of the set, rank 0 being the first element in this order
+     */
+    public RankedSet(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * @return the number of elements in the set
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Adds an element unless an equal one is already in the set
+     * @param value the element to add
+     * @return true if the element was added
+     */
+    public boolean add(T value) {
+        if (rankOf(value) >= 0) return false;
+
+        Split<T> parts = split(root, value, false);
+        root = merge(merge(parts.before, new Node<>(value, rand.nextInt())), parts.after);
+        return true;
+    }
+
+    /**
+     * Removes the element equal to value
+     * @param value the element to remove
+     * @return true if an element was removed
+     */
+    public boolean remove(T value) {
+        Split<T> lower = split(root, value, false);
+        Split<T> upper = split(lower.after, value, true);
+        root = merge(lower.before, upper.after);
+        return upper.before != null;
+    }
+
+    /**
+     * @param rank a rank between 0 and size() - 1
+     * @return the element at that rank
+     */
+    public T get(int rank) {
+        if (rank < 0 || rank >= size()) throw new IndexOutOfBoundsException("rank " + rank);
+
+        Node<T> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (rank < leftSize) {
+                node = node.left;
+            } else if (rank == leftSize) {
+                return node.value;
+            } else {
+                rank -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * @param value an element
+     * @return the rank of the element equal to value, or -1 if there is none
+     */
+    public int rankOf(T value) {
+        int rank = 0;
+        Node<T> node = root;
+        while (node != null) {
+            int c = comparator.compare(value, node.value);
+            if (c < 0) {
+                node = node.left;
+            } else if (c == 0) {
+                return rank + size(node.left);
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param value any value, which need not be in the set
+     * @return the number of elements in the set which come before value
+     */
+    public int countBefore(T value) {
+        int count = 0;
+        Node<T> node = root;
+        while (node != null) {
+            if (comparator.compare(node.value, value) < 0) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param k the maximum number of elements wanted
+     * @return the first k elements (or all of them if there are fewer) in order, in O(k + log n)
+     */
+    public List<T> first(int k) {
+        List<T> result = new ArrayList<>(Math.min(k, size()));
+        first(root, k, result);
+        return result;
+    }
+
+    private void first(Node<T> node, int k, List<T> result) {
+        if (node == null || result.size() >= k) return;
+        first(node.left, k, result);
+        if (result.size() < k) result.add(node.value);
+        first(node.right, k, result);
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * Splits a subtree into the elements before value and the rest. If inclusive, elements
+     * equal to value go into the first part rather than the second.
+     */
+    private Split<T> split(Node<T> node, T value, boolean inclusive) {
+        if (node == null) return new Split<>(null, null);
+
+        int c = comparator.compare(node.value, value);
+        if (c < 0 || (inclusive && c == 0)) {
+            Split<T> parts = split(node.right, value, inclusive);
+            node.right = parts.before;
+            update(node);
+            parts.before = node;
+            return parts;
+        } else {
+            Split<T> parts = split(node.left, value, inclusive);
+            node.left = parts.after;
+            update(node);
+            parts.after = node;
+            return parts;
+        }
+    }
+
+    /**
+     * Joins two subtrees where every element of a comes before every element of b.
+     */
+    private Node<T> merge(Node<T> a, Node<T> b) {
+        if (a == null) return b;
+        if (b == null) return a;
+
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        } else {
+            b.left = merge(a, b.left);
+            update(b);
+            return b;
+        }
+    }
+
+    private static void update(Node<?> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+}
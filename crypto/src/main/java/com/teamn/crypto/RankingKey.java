@@ -0,0 +1,63 @@
+package com.teamn.crypto;
+
+/**
+ * An immutable snapshot of what a player is ranked by. Players are ranked by the exact
+ * proportion of cryptograms they have solved, then by the number played, then by username,
+ * so the order is total and the same across runs.
+ */
+public final class RankingKey implements Comparable<RankingKey> {
+
+    private final int solved;
+    private final int played;
+    private final String username;
+
+    public RankingKey(int solved, int played, String username) {
+        this.solved = solved;
+        this.played = played;
+        this.username = username;
+    }
+
+    /**
+     * @param player the player to take a snapshot of
+     * @return the player's current ranking key
+     */
+    public static RankingKey of(Player player) {
+        return new RankingKey(player.getNumCryptogramsSolved(), player.getNumCryptogramsPlayed(), player.getUsername());
+    }
+
+    /**
+     * @return true if this key was taken with the given statistics
+     */
+    boolean matches(int solved, int played) {
+        return this.solved == solved && this.played == played;
+    }
+
+    /**
+     * Compares two keys, the better ranked key being the greater.
+     * @param other the key to compare to
+     * @return a positive number if this key ranks above other, negative if below, 0 if equal
+     */
+    @Override
+    public int compareTo(RankingKey other) {
+        // solved / played against other.solved / other.played, without dividing
+        // (no games played counts as a proportion of 0)
+        long lhs = (long) solved * Math.max(other.played, 1);
+        long rhs = (long) other.solved * Math.max(played, 1);
+        if (lhs != rhs) return Long.compare(lhs, rhs);
+        if (played != other.played) return Integer.compare(played, other.played);
+        return other.username.compareTo(username);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RankingKey)) return false;
+        RankingKey other = (RankingKey) o;
+        return solved == other.solved && played == other.played && username.equals(other.username);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * solved + played) + username.hashCode();
+    }
+}
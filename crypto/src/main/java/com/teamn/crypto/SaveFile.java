@@ -0,0 +1,144 @@
+package com.teamn.crypto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.zip.CRC32;
+
+/**
+ * Writes save files so that a crash never leaves a half-written file behind: the contents
+ * go to a temporary file next to the target, are forced to disk, and the temporary file is
+ * then atomically renamed over the target. Every save file starts with a header (magic,
+ * payload length, CRC32 of the payload) so corruption is detected before decoding.
+ */
+public final class SaveFile {
+
+    final static int MAGIC = 0x43534156; // "CSAV"
+    final static int HEADER_BYTES = 4 + 4 + 4;
+
+    private SaveFile() {
+    }
+
+    /**
+     * Durably replaces a file with a payload
+     * @param file the file to write
+     * @param payload the contents, written after the header
+     * @throws IOException if the file cannot be written, in which case the old file is untouched
+     */
+    public static void write(Path file, byte[] payload) throws IOException {
+        Path tmp = writeTemp(file, payload, true);
+        try {
+            commit(tmp, file);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Reads a save file, checking it is complete and undamaged
+     * @param file the file to read
+     * @return the payload
+     * @throws IOException if the file cannot be read or is corrupt
+     */
+    public static byte[] read(Path file) throws IOException {
+        return verify(Files.readAllBytes(file));
+    }
+
+    /**
+     * @param contents the contents of a file
+     * @return true if the contents start with a save file header
+     */
+    public static boolean hasHeader(byte[] contents) {
+        return contents.length >= HEADER_BYTES && ByteBuffer.wrap(contents).getInt(0) == MAGIC;
+    }
+
+    /**
+     * Checks the header of a save file against its payload
+     * @param contents the contents of the file
+     * @return the payload
+     * @throws IOException if the header is missing or does not match the payload
+     */
+    public static byte[] verify(byte[] contents) throws IOException {
+        if (!hasHeader(contents)) throw new IOException("Not a save file");
+
+        ByteBuffer buffer = ByteBuffer.wrap(contents);
+        int length = buffer.getInt(4);
+        if (length != contents.length - HEADER_BYTES) throw new IOException("Save file is truncated");
+
+        CRC32 crc = new CRC32();
+        crc.update(contents, HEADER_BYTES, length);
+        if (buffer.getInt(8) != (int) crc.getValue()) throw new IOException("Save file checksum does not match");
+
+        byte[] payload = new byte[length];
+        System.arraycopy(contents, HEADER_BYTES, payload, 0, length);
+        return payload;
+    }
+
+    /**
+     * Writes the header and payload to a new temporary file in the same directory as the target
+     * @param file the file which will eventually be replaced
+     * @param payload the contents
+     * @param force whether to force the temporary file to disk before returning
+     * @return the temporary file
+     */
+    static Path writeTemp(Path file, byte[] payload, boolean force) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        buffer.putInt(MAGIC).putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+        buffer.flip();
+
+        Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (force) channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        return tmp;
+    }
+
+    /**
+     * Forces a temporary file written without forcing to disk
+     */
+    static void force(Path tmp) throws IOException {
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Renames a forced temporary file over its target and forces the rename to disk
+     */
+    static void commit(Path tmp, Path file) throws IOException {
+        move(tmp, file);
+        syncDirectory(file.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Renames a forced temporary file over its target, atomically where the file system allows
+     */
+    static void move(Path tmp, Path file) throws IOException {
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Forces a directory entry change (the rename) to disk. Not every platform allows
+     * opening a directory, in which case the rename is left to the file system.
+     */
+    static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // e.g. Windows, where directories cannot be opened
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.teamn.crypto;
+
+import java.io.*;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Serves game sessions over TCP using a simple line protocol: every line the client sends
+ * is one line of input to its GameSession, and the session's responses are written back as
+ * they are. Each connection is handled on its own thread, a virtual thread where the JDK
+ * has them (21+) and otherwise a thread from a bounded pool. When every pool thread is busy
+ * a new connection is told so and closed rather than left waiting.
+ */
+public class SessionServer implements Closeable {
+
+    final static int MAX_LINE_BYTES = 1024; // longer lines are not a player typing
+
+    private final GameServices services;
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessions;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final Thread acceptor;
+
+    /**
+     * Starts listening on a local port
+     * @param services the state shared by every session
+     * @param port the port to listen on, or 0 for any free port
+     * @param maxThreads the size of the pool used when virtual threads are not available
+     * @throws IOException if the port cannot be bound
+     */
+    public SessionServer(GameServices services, int port, int maxThreads) throws IOException {
+        this.services = services;
+        this.serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+        this.sessions = newSessionExecutor(maxThreads);
+        this.acceptor = new Thread(this::acceptConnections, "session-acceptor");
+        acceptor.start();
+    }
+
+    /**
+     * @return the port the server is listening on
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Waits until the server is closed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void join() throws InterruptedException {
+        acceptor.join();
+    }
+
+    /**
+     * Stops accepting connections and ends every session. Sessions are ended by closing their
+     * sockets, never by interrupting them, as an interrupt during a write to the shared player
+     * log would close the log for everyone.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket socket : connections) {
+            socket.close(); // unblocks the session's read
+        }
+        sessions.shutdown();
+        try {
+            sessions.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Uses a virtual thread per task if the JDK supports it. Looked up reflectively as the
+     * game is built for Java 8. The fallback pool has no queue, so a task is rejected when
+     * all of its threads are busy.
+     */
+    static ExecutorService newSessionExecutor(int maxThreads) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+                    new SynchronousQueue<>(), r -> {
+                        Thread t = new Thread(r, "session");
+                        t.setDaemon(true);
+                        return t;
+                    });
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.add(socket);
+                if (serverSocket.isClosed()) socket.close(); // close() may have missed it
+                try {
+                    sessions.execute(() -> serve(socket));
+                } catch (RejectedExecutionException e) {
+                    connections.remove(socket);
+                    refuse(socket);
+                }
+            } catch (SocketException e) {
+                return; // closed
+            } catch (IOException e) {
+                System.out.println("Could not accept connection: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Tells a client there is no thread free to play with them and hangs up
+     */
+    private static void refuse(Socket socket) {
+        try (Socket s = socket) {
+            s.getOutputStream().write("The server is busy, please try again later.\n".getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // they have gone already
+        }
+    }
+
+    /**
+     * Runs one session until the player exits or disconnects
+     */
+    private void serve(Socket socket) {
+        try (Socket s = socket;
+             InputStream in = new BufferedInputStream(s.getInputStream());
+             Writer out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8))) {
+            GameSession session = new GameSession(services);
+            out.write(session.start());
+            out.flush();
+
+            String line;
+            while (!session.isFinished() && (line = readLine(in)) != null) {
+                out.write(session.handle(line));
+                out.flush();
+            }
+        } catch (IOException e) {
+            // the player disconnected, their game is kept by the auto saver
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    /**
+     * Reads a line ending in "\n" or "\r\n", the same as NioSessionServer, without buffering
+     * more than MAX_LINE_BYTES of it
+     * @return the line, or null at the end of the stream
+     * @throws IOException if the line is too long or the connection fails
+     */
+    static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b == -1) return line.size() > 0 ? line.toString("UTF-8") : null;
+            if (line.size() == MAX_LINE_BYTES) throw new IOException("Line too long");
+            line.write(b);
+        }
+        byte[] bytes = line.toByteArray();
+        int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+}
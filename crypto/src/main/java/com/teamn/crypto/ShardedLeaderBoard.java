@@ -0,0 +1,125 @@
+package com.teamn.crypto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A leaderboard which can be shared between threads. Players are spread over a number of
+ * shards by username, each shard ranking its own players under its own lock, so statistic
+ * updates for players on different shards don't contend. Reading the board merges the top
+ * places of every shard.
+ */
+public class ShardedLeaderBoard extends AbstractLeaderBoard {
+
+    private final LeaderBoard[] shards;
+
+    /**
+     * @param boardSize the number of places on the leaderboard
+     * @param shardCount the number of independently locked shards
+     */
+    public ShardedLeaderBoard(int boardSize, int shardCount) {
+        super(boardSize);
+        if (shardCount < 1) throw new IllegalArgumentException("shardCount must be at least 1");
+
+        shards = new LeaderBoard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new LeaderBoard(boardSize);
+        }
+    }
+
+    /**
+     * Creates a leaderboard with a shard for each available processor
+     * @param boardSize the number of places on the leaderboard
+     */
+    public ShardedLeaderBoard(int boardSize) {
+        this(boardSize, Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public void add(Player player) {
+        LeaderBoard shard = shardFor(player);
+        boolean added;
+        synchronized (shard) {
+            added = shard.rank(player);
+        }
+        if (added)
+            player.addListener(this);
+    }
+
+    @Override
+    public void remove(Player player) {
+        LeaderBoard shard = shardFor(player);
+        boolean removed;
+        synchronized (shard) {
+            removed = shard.unrank(player);
+        }
+        if (removed)
+            player.removeListener(this);
+    }
+
+    @Override
+    public void statsChanged(Player player) {
+        LeaderBoard shard = shardFor(player);
+        synchronized (shard) {
+            shard.statsChanged(player);
+        }
+    }
+
+    /**
+     * @param player a player added to the leaderboard
+     * @return the player's rank, 1 being the best, or -1 if the player hasn't been added
+     */
+    @Override
+    public int getRank(Player player) {
+        LeaderBoard own = shardFor(player);
+        synchronized (own) {
+            if (own.getRank(player) < 0) return -1;
+        }
+
+        RankingKey key = player.getRankingKey();
+        int rank = 1;
+        for (LeaderBoard shard : shards) {
+            synchronized (shard) {
+                rank += shard.countAbove(key);
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Merges the top places of every shard into the board
+     */
+    @Override
+    public synchronized void update() {
+        List<LeaderBoard.Standing> candidates = new ArrayList<>(board.length * shards.length);
+        for (LeaderBoard shard : shards) {
+            synchronized (shard) {
+                candidates.addAll(shard.top(board.length));
+            }
+        }
+        candidates.sort(LeaderBoard.Standing.ORDER);
+
+        Arrays.fill(board, null);
+        for (int i = 0; i < board.length && i < candidates.size(); i++) {
+            board[i] = candidates.get(i).player;
+        }
+    }
+
+    /**
+     * @return a copy of the leaderboard as of the last update
+     */
+    @Override
+    public synchronized Player[] getBoard() {
+        return board.clone();
+    }
+
+    @Override
+    public synchronized String printableLeaderBoard() {
+        return super.printableLeaderBoard();
+    }
+
+    private LeaderBoard shardFor(Player player) {
+        return shards[(player.getUsername().hashCode() & 0x7fffffff) % shards.length];
+    }
+}
@@ -0,0 +1,47 @@
+package com.teamn.crypto;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Variable length encoding of non-negative ints, 7 bits per byte with the top bit set on
+ * every byte but the last. Small counts, the common case, take a single byte.
+ */
+public final class VarInts {
+
+    private VarInts() {
+    }
+
+    /**
+     * @param out where to write the value
+     * @param value a non-negative value
+     * @throws IOException if it cannot be written
+     */
+    public static void write(DataOutput out, int value) throws IOException {
+        if (value < 0) throw new IllegalArgumentException("Negative value: " + value);
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * @param in where to read the value from
+     * @return the value
+     * @throws IOException if it cannot be read or is longer than an int
+     */
+    public static int read(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) throw new IOException("Malformed varint");
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
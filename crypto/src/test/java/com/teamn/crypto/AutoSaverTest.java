@@ -0,0 +1,116 @@
+package com.teamn.crypto;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the AutoSaver class
+ */
+class AutoSaverTest {
+
+    @TempDir
+    Path dir;
+
+    private AutoSaver autoSaver;
+
+    @BeforeEach
+    void setUp() {
+        autoSaver = new AutoSaver(dir, 1, TimeUnit.HOURS); // only written when flushed
+    }
+
+    @AfterEach
+    void tearDown() {
+        autoSaver.close();
+    }
+
+    private Game newGame(String username) {
+        Game game = new Game(new Player(username), "testsentences");
+        game.generateCryptogram(Game.GameType.LETTER);
+        game.setAutoSaver(autoSaver);
+        return game;
+    }
+
+    private Game load(Path file) throws IOException {
+        byte[] payload = SaveFile.read(file);
+        return new GameCodec().read(new DataInputStream(new ByteArrayInputStream(payload)));
+    }
+
+    @Test
+    void movesAreSavedInTheBackground() throws IOException {
+        Game game = newGame("name");
+        String symbol = game.getCryptogram().getCypherText().get(0);
+        game.enterLetter(symbol, 'E');
+        assertFalse(Files.exists(dir.resolve("name.autosave")));
+
+        autoSaver.flush();
+        assertEquals(Character.valueOf('E'), load(dir.resolve("name.autosave")).getGuessValue(symbol));
+    }
+
+    @Test
+    void successiveMovesAreCoalesced() throws IOException {
+        Game game = newGame("name");
+        for (String symbol : game.getCryptogram().getAlphabet()) {
+            game.enterLetter(symbol, 'E');
+            game.undoLetter(symbol);
+        }
+        String last = game.getCryptogram().getCypherText().get(0);
+        game.enterLetter(last, 'Q');
+        assertEquals(1, autoSaver.pending());
+
+        autoSaver.flush();
+        assertEquals(0, autoSaver.pending());
+        assertEquals(game.getGuesses(), load(dir.resolve("name.autosave")).getGuesses());
+    }
+
+    @Test
+    void severalPlayersAreSavedInOneBatch() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            Game game = newGame("player" + i);
+            game.enterLetter(game.getCryptogram().getCypherText().get(0), 'A');
+        }
+
+        autoSaver.flush();
+        for (int i = 0; i < 5; i++) {
+            assertEquals("player" + i, load(dir.resolve("player" + i + ".autosave")).getCurrentPlayer().getUsername());
+        }
+        assertEquals(5, Files.list(dir).count());
+    }
+
+    @Test
+    void discardedSaveIsDeleted() throws IOException {
+        Game game = newGame("name");
+        game.enterLetter(game.getCryptogram().getCypherText().get(0), 'A');
+        autoSaver.flush();
+
+        game.undoLetter(game.getCryptogram().getCypherText().get(0));
+        autoSaver.discard(game);
+        autoSaver.flush();
+        assertFalse(Files.exists(dir.resolve("name.autosave")));
+    }
+
+    @Test
+    void manualSaveIsNeverTouched() throws IOException {
+        Path manual = dir.resolve("name.txt");
+        SaveFile.write(manual, new byte[]{1, 2, 3});
+
+        Game game = newGame("name");
+        game.enterLetter(game.getCryptogram().getCypherText().get(0), 'A');
+        autoSaver.flush();
+        autoSaver.discard(game);
+        autoSaver.flush();
+
+        assertFalse(Files.exists(dir.resolve("name.autosave")));
+        assertArrayEquals(new byte[]{1, 2, 3}, SaveFile.read(manual));
+    }
+}
@@ -0,0 +1,63 @@
+package com.teamn.crypto;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the CryptogramPool class
+ */
+class CryptogramPoolTest {
+
+    private CryptogramPool pool;
+
+    @BeforeEach
+    void setup(){
+        pool = new CryptogramPool("sentences", 4, 2);
+    }
+
+    @AfterEach
+    void teardown(){
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Cryptograms of the requested type are handed out")
+    void takeReturnsRequestedType() {
+        assertTrue(pool.take(Game.GameType.LETTER) instanceof LetterCryptogram);
+        assertTrue(pool.take(Game.GameType.NUMBER) instanceof NumberCryptogram);
+    }
+
+    @Test
+    @DisplayName("The pool keeps handing out cryptograms after it has been drained")
+    void takeMoreThanCapacity() {
+        for(int i = 0; i < 20; i++){
+            Cryptogram cryptogram = pool.take(Game.GameType.LETTER);
+            assertNotNull(cryptogram);
+            assertNotNull(cryptogram.getPhrase());
+        }
+    }
+
+    @Test
+    @DisplayName("The pool is refilled in the background")
+    void poolIsRefilled() throws InterruptedException {
+        for(int i = 0; i < 4; i++) pool.take(Game.GameType.NUMBER);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while(pool.available(Game.GameType.NUMBER) < 2 && System.currentTimeMillis() < deadline){
+            Thread.sleep(10);
+        }
+        assertTrue(pool.available(Game.GameType.NUMBER) >= 2);
+    }
+
+    @Test
+    @DisplayName("Games take their cryptograms from the pool")
+    void gameUsesPool() {
+        Game game = new Game(new Player("name"), pool);
+        game.generateCryptogram(Game.GameType.NUMBER);
+        assertTrue(game.cryptogramType(NumberCryptogram.class));
+    }
+}
@@ -2,7 +2,10 @@ package com.teamn.crypto;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -53,4 +56,92 @@ class CryptogramTest {
         }};
         assertFalse(cr.isCorrect(guesses));
     }
-}
\ No newline at end of file
+
+    @Test
+    void randomKeyIsAPermutation() {
+        Cryptogram cr = new LetterCryptogram("testsentences");
+        int[] key = cr.generateRandomKey(26);
+        boolean[] seen = new boolean[26];
+        for (int symbol : key) {
+            assertFalse(seen[symbol]);
+            seen[symbol] = true;
+        }
+    }
+
+    @Test
+    void cypherTextMatchesCypherSymbols() {
+        Cryptogram cr = new NumberCryptogram("sentences");
+        assertEquals(cr.getCypherLength(), cr.getCypherText().size());
+        for (int i = 0; i < cr.getCypherLength(); i++) {
+            int symbol = cr.getCypherSymbol(i);
+            if (cr.getPhrase().charAt(i) == ' ') {
+                assertEquals(Cryptogram.SPACE, symbol);
+                assertEquals(" ", cr.getCypherText().get(i));
+            } else {
+                assertEquals(cr.getSymbol(symbol), cr.getCypherText().get(i));
+                assertEquals(String.valueOf(cr.getPhrase().charAt(i)), cr.getCorrectMappings().get(cr.getSymbol(symbol)));
+            }
+        }
+    }
+
+    @Test
+    void frequenciesMatchCypherText() {
+        Cryptogram cr = new LetterCryptogram("sentences");
+        List<String> cypherText = cr.getCypherText();
+        Map<String, Integer> frequencies = cr.getCypherTextFrequencies();
+
+        for (String s : cypherText) {
+            assertEquals(Collections.frequency(cypherText, s), (int) frequencies.get(s));
+        }
+        assertEquals(new HashSet<>(cypherText), frequencies.keySet());
+
+        int total = 0;
+        for (int i = 0; i < cr.getAlphabet().size(); i++) total += cr.getSymbolCount(i);
+        assertEquals(cr.getSymbolTotal(), total);
+    }
+
+    @Test
+    void positionsIndexTheCypherText() {
+        Cryptogram cr = new NumberCryptogram("sentences");
+        int indexed = 0;
+        for (int symbol = 0; symbol < cr.getAlphabet().size(); symbol++) {
+            int[] positions = cr.getSymbolPositions(symbol);
+            assertEquals(cr.getSymbolCount(symbol), positions.length);
+            for (int i = 0; i < positions.length; i++) {
+                assertEquals(symbol, cr.getCypherSymbol(positions[i]));
+                if (i > 0) assertTrue(positions[i] > positions[i - 1]);
+            }
+            indexed += positions.length;
+        }
+        assertEquals(cr.getSymbolTotal(), indexed);
+    }
+
+    @Test
+    void singleGuessesAreCheckedThroughTheIndex() {
+        Cryptogram cr = new LetterCryptogram("sentences");
+        for (int symbol = 0; symbol < 26; symbol++) {
+            String expected = cr.getCorrectMappings().get(cr.getSymbol(symbol));
+            if (expected == null) {
+                assertEquals(0, cr.getPlaintext(symbol));
+                assertFalse(cr.isCorrectGuess(symbol, 'A'));
+            } else {
+                assertEquals(expected.charAt(0), cr.getPlaintext(symbol));
+                assertTrue(cr.isCorrectGuess(symbol, expected.charAt(0)));
+                assertFalse(cr.isCorrectGuess(symbol, (char) (expected.charAt(0) == 'Z' ? 'A' : expected.charAt(0) + 1)));
+            }
+        }
+    }
+
+    @Test
+    void completeCorrectGuessesAreCorrect() {
+        Cryptogram cr = new NumberCryptogram("sentences");
+        Map<String, Character> guesses = new HashMap<>();
+        for (Map.Entry<String, String> mapping : cr.getCorrectMappings().entrySet()) {
+            guesses.put(mapping.getKey(), mapping.getValue().charAt(0));
+        }
+        assertTrue(cr.isCorrect(guesses));
+
+        guesses.remove(guesses.keySet().iterator().next());
+        assertFalse(cr.isCorrect(guesses));
+    }
+}
@@ -29,4 +29,46 @@ public class FrequencyManagerTest {
         Assertions.assertEquals(frequencies.get("b"), B_CHAR_FREQUENCY);
         Assertions.assertEquals(frequencies.get("c"), C_CHAR_FREQUENCY);
     }
+
+    @Test
+    public void testEnglishDistribution() {
+        double[] distribution = FrequencyManager.getEnglishDistribution();
+        Assertions.assertEquals(26, distribution.length);
+        Assertions.assertEquals(8.12, distribution[0]);
+        Assertions.assertEquals(8.12, FrequencyManager.getEnglishFrequency(0));
+        Assertions.assertEquals(0.07, FrequencyManager.getEnglishFrequency(25));
+    }
+
+    @Test
+    public void testInternalFrequencies() {
+        Cryptogram cryptogram = new LetterCryptogram("testsentences");
+        double[] frequencies = FrequencyManager.getInternalFrequencies(cryptogram);
+
+        double total = 0;
+        for (int i = 0; i < frequencies.length; i++) {
+            double expected = 100.0 * cryptogram.getSymbolCount(i) / cryptogram.getSymbolTotal();
+            Assertions.assertEquals(expected, frequencies[i], 1e-9);
+            total += frequencies[i];
+        }
+        Assertions.assertEquals(100, total, 1e-9);
+    }
+
+    /**
+     * Spaces are not counted, for letter cryptograms as for number cryptograms. Before the
+     * numeric API the letter display divided by the length of the cypher text joined with
+     * spaces, so "AB A" showed A as 28.57% (2 of 7 characters) rather than 66.67%.
+     */
+    @Test
+    public void testInternalFrequenciesLeaveOutSpaces() {
+        int[] key = new int[26];
+        for (int i = 0; i < key.length; i++) key[i] = i;
+        byte[] symbols = {0, 1, Cryptogram.SPACE, 0}; // "AB A"
+
+        for (Cryptogram cryptogram : new Cryptogram[]{new LetterCryptogram(key, symbols), new NumberCryptogram(key, symbols)}) {
+            double[] frequencies = FrequencyManager.getInternalFrequencies(cryptogram);
+            Assertions.assertEquals(200.0 / 3, frequencies[0], 1e-9);
+            Assertions.assertEquals(100.0 / 3, frequencies[1], 1e-9);
+        }
+        Assertions.assertEquals("28.57", FrequencyManager.getInternalFrequenciesForCharactersString("A B   A").get("A"));
+    }
 }
@@ -0,0 +1,109 @@
+package com.teamn.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the GameCodec class
+ */
+class GameCodecTest {
+
+    private final GameCodec codec = new GameCodec();
+
+    private byte[] encode(Game game) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        codec.write(game, new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    private Game decode(byte[] bytes) throws IOException {
+        return codec.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    private Game roundTrip(Game.GameType type) throws IOException {
+        Game game = new Game(new Player("name"), "testsentences");
+        game.generateCryptogram(type);
+        Cryptogram cryptogram = game.getCryptogram();
+        String first = cryptogram.getCypherText().get(0);
+        game.enterLetter(first, cryptogram.getCorrectMappings().get(first).charAt(0));
+
+        Game loaded = decode(encode(game));
+        assertEquals(cryptogram.getClass(), loaded.getCryptogram().getClass());
+        assertEquals(cryptogram.getPhrase(), loaded.getCryptogram().getPhrase());
+        assertEquals(cryptogram.getCypherText(), loaded.getCryptogram().getCypherText());
+        assertEquals(cryptogram.getCorrectMappings(), loaded.getCryptogram().getCorrectMappings());
+        assertEquals(game.getGuesses(), loaded.getGuesses());
+        assertEquals(game.hasGuessesForAllCypherCharacters(), loaded.hasGuessesForAllCypherCharacters());
+        assertEquals("testsentences", loaded.getSentencesFile());
+        assertEquals(1, loaded.getCurrentPlayer().getNumCryptogramsPlayed());
+        return loaded;
+    }
+
+    @Test
+    void letterGameRoundTrips() throws IOException {
+        roundTrip(Game.GameType.LETTER);
+    }
+
+    @Test
+    void numberGameRoundTrips() throws IOException {
+        roundTrip(Game.GameType.NUMBER);
+    }
+
+    @Test
+    void gameWithoutCryptogramRoundTrips() throws IOException {
+        Game loaded = decode(encode(new Game(new Player("name"), "testsentences")));
+        assertNull(loaded.getCryptogram());
+        assertEquals("name", loaded.getCurrentPlayer().getUsername());
+    }
+
+    @Test
+    void smallerThanJavaSerialization() throws IOException {
+        Game game = new Game(new Player("name"), "testsentences");
+        game.generateCryptogram(Game.GameType.NUMBER);
+
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+            out.writeObject(game);
+        }
+        assertTrue(encode(game).length < serialized.size() / 4);
+    }
+
+    @Test
+    void unknownVersionIsRejected() throws IOException {
+        byte[] bytes = encode(new Game(new Player("name"), "testsentences"));
+        bytes[0] = 99;
+        assertThrows(IOException.class, () -> decode(bytes));
+    }
+
+    @Test
+    void corruptKeyIsRejected() throws IOException {
+        Game game = new Game(new Player("name"), "testsentences");
+        game.generateCryptogram(Game.GameType.LETTER);
+        byte[] bytes = encode(game);
+
+        int key = bytes.length - game.getCryptogram().getCypherLength() - 2 - 26; // key, length, cypher text, no guesses
+        bytes[key] = bytes[key + 1];
+        assertThrows(IOException.class, () -> decode(bytes));
+    }
+
+    @Test
+    void garbledLengthsAreRejectedBeforeAllocating() throws IOException {
+        Game game = new Game(new Player("name"), "testsentences");
+        game.generateCryptogram(Game.GameType.LETTER);
+        byte[] bytes = encode(game);
+        int cypherLength = game.getCryptogram().getCypherLength();
+        int keyLength = bytes.length - cypherLength - 2 - 26 - 1; // the 1 byte varint before the key
+
+        byte[] hugeKey = bytes.clone();
+        hugeKey[keyLength] = (byte) 0xff; // continues into the key bytes, making a huge length
+        assertThrows(IOException.class, () -> decode(hugeKey));
+
+        ByteArrayOutputStream hugeCypher = new ByteArrayOutputStream();
+        hugeCypher.write(bytes, 0, keyLength + 1 + 26);
+        VarInts.write(new DataOutputStream(hugeCypher), Integer.MAX_VALUE);
+        assertThrows(IOException.class, () -> decode(hugeCypher.toByteArray()));
+    }
+}
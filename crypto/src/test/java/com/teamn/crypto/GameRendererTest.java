@@ -0,0 +1,86 @@
+package com.teamn.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the GameRenderer class
+ */
+class GameRendererTest {
+
+    /**
+     * Renders the guesses the way the game did before it had a renderer
+     */
+    private static String renderFromScratch(Cryptogram cryptogram, Map<String, Character> guesses) {
+        StringBuilder playerGuesses = new StringBuilder();
+        for (String s : cryptogram.getCypherText()) {
+            if (s.equals(" "))
+                playerGuesses.append("  ");
+            else if (!guesses.containsKey(s)) {
+                for (char ignored : s.toCharArray()) {
+                    playerGuesses.append('_');
+                }
+                playerGuesses.append(" ");
+            } else {
+                playerGuesses.append(guesses.get(s));
+                if (s.length() > 1)
+                    playerGuesses.append(" ");
+                playerGuesses.append(" ");
+            }
+        }
+        return "\nCyphertext: " + cryptogram + "\nPlayertext: " + playerGuesses;
+    }
+
+    private static void checkAgainstFullRender(Cryptogram cryptogram) {
+        GameRenderer renderer = new GameRenderer(cryptogram);
+        Map<String, Character> guesses = new HashMap<>();
+        assertEquals(renderFromScratch(cryptogram, guesses), renderer.render(new StringBuilder()).toString());
+
+        List<String> symbols = cryptogram.getAlphabet();
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            int symbol = random.nextInt(symbols.size());
+            if (random.nextBoolean()) {
+                char guess = (char) ('A' + random.nextInt(26));
+                guesses.put(symbols.get(symbol), guess);
+                renderer.setGuess(symbol, guess);
+            } else {
+                guesses.remove(symbols.get(symbol));
+                renderer.clearGuess(symbol);
+            }
+            assertEquals(renderFromScratch(cryptogram, guesses), renderer.render(new StringBuilder()).toString());
+        }
+    }
+
+    @Test
+    void letterCryptogramMatchesFullRender() {
+        checkAgainstFullRender(new LetterCryptogram("testsentences"));
+    }
+
+    @Test
+    void numberCryptogramMatchesFullRender() {
+        checkAgainstFullRender(new NumberCryptogram("testsentences"));
+    }
+
+    @Test
+    void gameKeepsItsRenderingUpToDate() {
+        Game game = new Game(new Player("name"), "testsentences");
+        game.generateCryptogram(Game.GameType.NUMBER);
+        Cryptogram cryptogram = game.getCryptogram();
+        String symbol = cryptogram.getCypherText().get(0);
+        game.renderGameState();
+
+        game.enterLetter(symbol, 'q');
+        assertEquals(renderFromScratch(cryptogram, game.getGuesses()), game.renderGameState());
+        game.undoLetter(symbol);
+        assertEquals(renderFromScratch(cryptogram, game.getGuesses()), game.renderGameState());
+        assertNull(game.giveHint(symbol));
+        assertEquals(renderFromScratch(cryptogram, game.getGuesses()), game.renderGameState());
+    }
+}
@@ -0,0 +1,199 @@
+package com.teamn.crypto;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the GameSession class
+ */
+class GameSessionTest {
+
+    @TempDir
+    Path dir;
+
+    private GameServices services;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        services = new GameServices(dir, "testsentences");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        services.close();
+    }
+
+    private GameSession startLetterGame(String username) {
+        GameSession session = new GameSession(services);
+        assertTrue(session.start().endsWith("Enter your username: "));
+        assertTrue(session.handle(username).contains("letter cryptogram or a number cryptogram"));
+        String menu = session.handle("L");
+        assertTrue(menu.contains("Cyphertext: "));
+        assertTrue(menu.endsWith("\nChoice: \n"));
+        assertEquals(GameSession.State.MENU, session.getState());
+        return session;
+    }
+
+    @Test
+    void invalidUsernameIsAskedForAgain() {
+        GameSession session = new GameSession(services);
+        session.start();
+        assertTrue(session.handle("two words").contains("exactly one word"));
+        assertEquals(GameSession.State.USERNAME, session.getState());
+    }
+
+    @Test
+    void usernameThatIsNotAFileNameIsAskedForAgain() {
+        GameSession session = new GameSession(services);
+        session.start();
+        for (String username : new String[]{"../../somewhere/x", "a.b", "name/", "abcdefghijklmnopqrstuvwxyz0123456"}) {
+            assertTrue(session.handle(username).contains("may only contain letters, digits"));
+            assertEquals(GameSession.State.USERNAME, session.getState());
+        }
+        assertNull(services.findPlayer("../../somewhere/x"));
+        assertTrue(session.handle("good_name-1").contains("Creating new player: good_name-1"));
+    }
+
+    @Test
+    void invalidMenuChoiceIsAskedForAgain() {
+        GameSession session = startLetterGame("name");
+        assertTrue(session.handle("42").contains("invalid option chosen"));
+        assertTrue(session.handle("x").contains("invalid option chosen"));
+        assertEquals(GameSession.State.MENU, session.getState());
+    }
+
+    @Test
+    void solvingTheCryptogram() {
+        GameSession session = startLetterGame("name");
+        String response = "";
+        for (Map.Entry<String, String> mapping : session.getGame().getCryptogram().getCorrectMappings().entrySet()) {
+            assertTrue(session.handle("1").contains("What cypher character"));
+            assertTrue(session.handle(mapping.getKey().toLowerCase()).contains("What character do you think"));
+            response = session.handle(mapping.getValue());
+        }
+
+        assertTrue(response.contains("successfully completed"));
+        assertFalse(response.contains("1) Enter a letter"));
+        assertEquals(1, services.findPlayer("name").getNumCryptogramsSolved());
+
+        assertTrue(session.handle("7").contains("name"));
+        assertEquals(1, services.findPlayer("name").getNumCryptogramsSolved());
+        assertTrue(session.handle("6").contains("Goodbye"));
+        assertTrue(session.isFinished());
+    }
+
+    @Test
+    void undoingAGuess() {
+        GameSession session = startLetterGame("name");
+        String symbol = session.getGame().getCryptogram().getCypherText().get(0);
+        session.handle("1");
+        session.handle(symbol);
+        session.handle("Q");
+        assertEquals(Character.valueOf('Q'), session.getGame().getGuessValue(symbol));
+
+        session.handle("2");
+        assertTrue(session.handle(symbol).contains("Removed player choice for " + symbol));
+        assertNull(session.getGame().getGuessValue(symbol));
+    }
+
+    @Test
+    void batchOfMovesIsMadeFromTheMenu() {
+        GameSession session = startLetterGame("name");
+        StringBuilder batch = new StringBuilder();
+        for (Map.Entry<String, String> mapping : session.getGame().getCryptogram().getCorrectMappings().entrySet()) {
+            batch.append("G ").append(mapping.getKey()).append('=').append(mapping.getValue()).append("; ");
+        }
+        String response = session.handle(batch.toString());
+        assertTrue(response.contains("successfully completed"));
+        assertEquals(1, response.split("Cyphertext: ", -1).length - 1); // rendered once
+
+        assertTrue(session.handle("G A=B").contains("This cryptogram is over"));
+    }
+
+    @Test
+    void rejectedBatchChangesNothing() {
+        GameSession session = startLetterGame("name");
+        String symbol = session.getGame().getCryptogram().getCypherText().get(0);
+        String response = session.handle("G " + symbol + "=Q; U " + symbol + "; U " + symbol);
+        assertTrue(response.contains("None of the moves were made"));
+        assertNull(session.getGame().getGuessValue(symbol));
+        assertEquals(GameSession.State.MENU, session.getState());
+    }
+
+    @Test
+    void savedGameIsOfferedAtLogin() {
+        GameSession session = startLetterGame("name");
+        String symbol = session.getGame().getCryptogram().getCypherText().get(0);
+        session.handle("1");
+        session.handle(symbol);
+        session.handle("Q");
+        assertTrue(session.handle("3").contains("Game saved successfully!"));
+
+        GameSession resumed = new GameSession(services);
+        resumed.start();
+        assertTrue(resumed.handle("name").contains("Would you like to continue this game?"));
+        assertTrue(resumed.handle("yes").contains("Cyphertext: "));
+        assertEquals(Character.valueOf('Q'), resumed.getGame().getGuessValue(symbol));
+        assertSame(session.getGame().getCurrentPlayer(), resumed.getGame().getCurrentPlayer());
+    }
+
+    @Test
+    void autoSavedGameIsOfferedAtLoginWithoutTouchingTheSave() throws IOException {
+        GameSession session = startLetterGame("name");
+        assertTrue(session.handle("3").contains("Game saved successfully!"));
+        byte[] saved = Files.readAllBytes(services.saveFileFor("name"));
+
+        String symbol = session.getGame().getCryptogram().getCypherText().get(0);
+        session.handle("1");
+        session.handle(symbol);
+        session.handle("Q");
+        services.getAutoSaver().flush();
+        assertArrayEquals(saved, Files.readAllBytes(services.saveFileFor("name")));
+
+        GameSession resumed = new GameSession(services);
+        resumed.start();
+        assertTrue(resumed.handle("name").contains("Would you like to continue this game?"));
+        assertTrue(resumed.handle("yes").contains("Cyphertext: "));
+        assertEquals(Character.valueOf('Q'), resumed.getGame().getGuessValue(symbol));
+        assertArrayEquals(saved, Files.readAllBytes(services.saveFileFor("name")));
+
+        resumed.handle("5"); // abandon it for a new cryptogram
+        resumed.handle("L");
+        services.getAutoSaver().flush();
+        assertFalse(Files.exists(services.autoSaveFileFor("name")));
+        assertArrayEquals(saved, Files.readAllBytes(services.saveFileFor("name")));
+    }
+
+    @Test
+    void serializedGameIsTreatedAsCorrupt() throws IOException {
+        Game game = new Game(new Player("name"), "testsentences");
+        game.generateCryptogram(Game.GameType.LETTER);
+        try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(services.saveFileFor("name")))) {
+            out.writeObject(game); // how the original version saved games
+        }
+
+        GameSession session = new GameSession(services);
+        session.start();
+        assertTrue(session.handle("name").contains("Would you like to continue this game?"));
+        assertTrue(session.handle("yes").contains("Game file is corrupt"));
+        assertEquals(GameSession.State.GAME_TYPE, session.getState());
+    }
+
+    @Test
+    void sessionsShareTheirPlayers() {
+        GameSession first = startLetterGame("name");
+        GameSession second = startLetterGame("name");
+        assertSame(first.getGame().getCurrentPlayer(), second.getGame().getCurrentPlayer());
+        assertEquals(2, services.findPlayer("name").getNumCryptogramsPlayed());
+    }
+}
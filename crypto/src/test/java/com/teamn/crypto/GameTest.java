@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
@@ -153,6 +154,30 @@ class GameTest {
         }
     }
 
+    @Test
+    void batchOfMovesIsApplied() {
+        game.generateCryptogram(Game.GameType.LETTER);
+        List<String> symbols = new ArrayList<>(game.getCryptogram().getCorrectMappings().keySet());
+        String first = symbols.get(0), second = symbols.get(1);
+
+        assertNull(game.applyMoves(MoveBatch.parse("G " + first + "=A; G " + second + "=B; U " + first)));
+        assertNull(game.getGuessValue(first));
+        assertEquals(Character.valueOf('B'), game.getGuessValue(second));
+        assertEquals(2, game.getCurrentPlayer().totalGuesses);
+    }
+
+    @Test
+    void batchOfMovesIsAllOrNothing() {
+        game.generateCryptogram(Game.GameType.LETTER);
+        List<String> symbols = new ArrayList<>(game.getCryptogram().getCorrectMappings().keySet());
+        String first = symbols.get(0), second = symbols.get(1);
+
+        assertNotNull(game.applyMoves(MoveBatch.parse("G " + first + "=A; U " + second)));
+        assertNotNull(game.applyMoves(MoveBatch.parse("G " + first + "=A; G " + first + "=B")));
+        assertNull(game.getGuessValue(first));
+        assertEquals(0, game.getCurrentPlayer().totalGuesses);
+    }
+
     @Test
     @DisplayName("Players are instantiated with appropriate values for cryptograms played and solved")
     void testPlayerStatsOnInstantiation(){
@@ -208,4 +233,30 @@ class GameTest {
         assertEquals(0, player.getNumCryptogramsSolved());
         assertEquals(1, player.getNumCryptogramsPlayed());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("The game is only complete once every cypher symbol has a guess")
+    void hasGuessesForAllCypherCharacters(){
+        game.generateCryptogram(Game.GameType.NUMBER);
+        Cryptogram cryptogram = game.getCryptogram();
+        List<String> symbols = new ArrayList<>(cryptogram.getCorrectMappings().keySet());
+
+        for (String symbol: symbols) {
+            assertFalse(game.hasGuessesForAllCypherCharacters());
+            game.enterLetter(symbol, 'A');
+        }
+        assertTrue(game.hasGuessesForAllCypherCharacters());
+
+        game.undoLetter(symbols.get(0));
+        assertFalse(game.hasGuessesForAllCypherCharacters());
+
+        // a guess for a symbol not in the cypher text doesn't count towards completion
+        for (String symbol: cryptogram.getAlphabet()) {
+            if (!cryptogram.cyphertextContainsChar(symbol)) game.enterLetter(symbol, 'A');
+        }
+        assertFalse(game.hasGuessesForAllCypherCharacters());
+
+        game.enterLetter(symbols.get(0), 'A');
+        assertTrue(game.hasGuessesForAllCypherCharacters());
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -340,4 +341,109 @@ public class LeaderBoardTest {
         assertEquals(one, board[1]);
     }
 
+    @Test
+    @DisplayName("Updating the leaderboard does not reorder the list of players")
+    void test14(){
+        for(int i = 1; i <= 20; i++){
+            Player p = new Player("player" + i);
+            for(int j = 1; j <= i; j++) p.incrementCryptogramsSolved();
+            for(int k = 0; k < 20; k++) p.incrementCryptogramsPlayed();
+            players.add(p);
+        }
+        List<Player> before = new ArrayList<>(players);
+
+        leaderBoard.update();
+
+        assertEquals(before, players);
+        assertEquals("player20", leaderBoard.getBoard()[0].getUsername());
+    }
+
+    @Test
+    @DisplayName("Players with equal standing are ordered by username")
+    void test15(){
+        List<String> usernames = new ArrayList<>();
+        for(int i = 0; i < 15; i++) {
+            players.add(new Player("player" + i));
+            usernames.add("player" + i);
+        }
+        Collections.sort(usernames);
+
+        leaderBoard.update();
+        Player[] board = leaderBoard.getBoard();
+
+        for(int i = 0; i < board.length; i++){
+            assertEquals(usernames.get(i), board[i].getUsername());
+        }
+    }
+
+    @Test
+    @DisplayName("A leaderboard without a player list follows its players' statistics")
+    void test16(){
+        LeaderBoard incremental = new LeaderBoard(3);
+        Player p1 = new Player("player1");
+        Player p2 = new Player("player2");
+        Player p3 = new Player("player3");
+        Player p4 = new Player("player4");
+        for(Player p: new Player[]{p1, p2, p3, p4}) incremental.add(p);
+
+        p2.incrementCryptogramsPlayed();
+        p2.incrementCryptogramsSolved();
+        p3.incrementCryptogramsPlayed();
+        p3.incrementCryptogramsPlayed();
+        p3.incrementCryptogramsSolved();
+
+        incremental.update();
+        assertArrayEquals(new Player[]{p2, p3, p1}, incremental.getBoard());
+        assertEquals(1, incremental.getRank(p2));
+        assertEquals(2, incremental.getRank(p3));
+        assertEquals(4, incremental.getRank(p4));
+
+        // p4 overtakes p3
+        p4.incrementCryptogramsPlayed();
+        p4.incrementCryptogramsPlayed();
+        p4.incrementCryptogramsPlayed();
+        p4.incrementCryptogramsSolved();
+        p4.incrementCryptogramsSolved();
+
+        incremental.update();
+        assertArrayEquals(new Player[]{p2, p4, p3}, incremental.getBoard());
+        assertEquals(2, incremental.getRank(p4));
+
+        incremental.remove(p2);
+        p2.incrementCryptogramsPlayed();
+        incremental.update();
+        assertArrayEquals(new Player[]{p4, p3, p1}, incremental.getBoard());
+        assertEquals(-1, incremental.getRank(p2));
+    }
+
+    @Test
+    @DisplayName("A leaderboard without a player list prints the same as one with a list")
+    void test17(){
+        LeaderBoard incremental = new LeaderBoard(10);
+        for(int i = 1; i <= 10; i++){
+            Player p = new Player("player" + i);
+            incremental.add(p);
+            players.add(p);
+            for(int k = 0; k < 10; k++) p.incrementCryptogramsPlayed();
+            for(int j = 1; j <= i; j++) p.incrementCryptogramsSolved();
+        }
+
+        incremental.update();
+        leaderBoard.update();
+        assertEquals(leaderBoard.printableLeaderBoard(), incremental.printableLeaderBoard());
+    }
+
+    @Test
+    @DisplayName("A leaderboard of a list of players does not support adding, removing or ranking players")
+    void listLeaderBoardRejectsIncrementalMethods(){
+        Player player = new Player("name");
+        players.add(player);
+        assertThrows(IllegalStateException.class, () -> leaderBoard.add(player));
+        assertThrows(IllegalStateException.class, () -> leaderBoard.remove(player));
+        assertThrows(IllegalStateException.class, () -> leaderBoard.getRank(player));
+
+        leaderBoard.statsChanged(player);
+        leaderBoard.update();
+        assertSame(player, leaderBoard.getBoard()[0]);
+    }
 }
@@ -43,6 +43,21 @@ class LetterCryptogramTest {
         }
     }
 
+    @Test
+    void symbolIndexMatchesAlphabet() {
+        List<String> alphabet = cg.getAlphabet();
+        for(int i = 0; i < alphabet.size(); i++){
+            assertEquals(i, cg.getSymbolIndex(alphabet.get(i)));
+        }
+        assertEquals(-1, cg.getSymbolIndex("a"));
+        assertEquals(-1, cg.getSymbolIndex("AB"));
+        assertEquals(-1, cg.getSymbolIndex(""));
+        assertEquals(-1, cg.getSymbolIndex(null));
+    }
 
-
-}
\ No newline at end of file
+    @Test
+    void alphabetIsSharedAndUnmodifiable() {
+        assertSame(cg.getAlphabet(), new LetterCryptogram("testsentences").getAlphabet());
+        assertThrows(UnsupportedOperationException.class, () -> cg.getAlphabet().set(0, "0"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.teamn.crypto;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the MappedPhraseStore class
+ */
+class MappedPhraseStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsEveryLine() throws IOException {
+        Path corpus = dir.resolve("sentences");
+        Files.write(corpus, "first line\r\nsecond line\n\nlast line".getBytes(StandardCharsets.UTF_8));
+
+        MappedPhraseStore store = MappedPhraseStore.open(corpus);
+        assertEquals(4, store.getLineCount());
+        assertEquals("first line", store.readLine(0));
+        assertEquals("second line", store.readLine(1));
+        assertEquals("", store.readLine(2));
+        assertEquals("last line", store.readLine(3));
+    }
+
+    @Test
+    void retrieverReadsFromFilesystemPath() throws IOException {
+        Path corpus = dir.resolve("sentences");
+        Files.write(corpus, "only phrase".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("ONLY PHRASE", new PhraseRetriever(corpus).getRandomPhrase());
+    }
+
+    @Test
+    void linesCrossingSegmentsAreRead() throws IOException {
+        StringBuilder contents = new StringBuilder();
+        for (int i = 0; i < 200; i++) contents.append("phrase number ").append(i).append('\n');
+        Path corpus = dir.resolve("sentences");
+        Files.write(corpus, contents.toString().getBytes(StandardCharsets.UTF_8));
+
+        MappedPhraseStore store = MappedPhraseStore.open(corpus, 6); // 64 byte segments
+        assertEquals(200, store.getLineCount());
+        for (int i = 0; i < 200; i++) {
+            assertEquals("phrase number " + i, store.readLine(i));
+        }
+    }
+}
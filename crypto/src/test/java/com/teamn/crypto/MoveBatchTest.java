@@ -0,0 +1,44 @@
+package com.teamn.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the MoveBatch class
+ */
+class MoveBatchTest {
+
+    @Test
+    void parsesGuessesAndUndosInOrder() {
+        List<MoveBatch.Move> moves = MoveBatch.parse("G x=e; g Q = t;U 12;").getMoves();
+        assertEquals(3, moves.size());
+        assertEquals("X", moves.get(0).symbol);
+        assertEquals('E', moves.get(0).plaintext);
+        assertEquals("Q", moves.get(1).symbol);
+        assertEquals('T', moves.get(1).plaintext);
+        assertEquals("12", moves.get(2).symbol);
+        assertTrue(moves.get(2).isUndo());
+    }
+
+    @Test
+    void malformedCommandsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> MoveBatch.parse("G X"));
+        assertThrows(IllegalArgumentException.class, () -> MoveBatch.parse("G X=12"));
+        assertThrows(IllegalArgumentException.class, () -> MoveBatch.parse("G =E"));
+        assertThrows(IllegalArgumentException.class, () -> MoveBatch.parse("U X Y"));
+        assertThrows(IllegalArgumentException.class, () -> MoveBatch.parse("G X=E; H Y"));
+        assertThrows(IllegalArgumentException.class, () -> MoveBatch.parse(" ; "));
+    }
+
+    @Test
+    void onlyCommandsLookLikeBatches() {
+        assertTrue(MoveBatch.looksLikeBatch("G X=E"));
+        assertTrue(MoveBatch.looksLikeBatch(" u Z"));
+        assertFalse(MoveBatch.looksLikeBatch("1"));
+        assertFalse(MoveBatch.looksLikeBatch("G"));
+        assertFalse(MoveBatch.looksLikeBatch("Goodbye"));
+    }
+}
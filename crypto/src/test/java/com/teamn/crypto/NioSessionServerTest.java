@@ -0,0 +1,196 @@
+package com.teamn.crypto;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the NioSessionServer class
+ */
+class NioSessionServerTest {
+
+    @TempDir
+    Path dir;
+
+    private GameServices services;
+    private NioSessionServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        services = new GameServices(dir, "testsentences");
+        server = new NioSessionServer(services, 0, 2);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.close();
+        services.close();
+    }
+
+    private Socket connect() throws IOException {
+        return new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+    }
+
+    private static String readAll(Socket socket) throws IOException {
+        Reader in = new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8);
+        StringBuilder received = new StringBuilder();
+        char[] buffer = new char[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            received.append(buffer, 0, read);
+        }
+        return received.toString();
+    }
+
+    /**
+     * Plays a short game over a connection
+     * @return everything the server sent
+     */
+    private String play(String username) throws IOException {
+        try (Socket socket = connect()) {
+            OutputStream out = socket.getOutputStream();
+            out.write((username + "\nL\n6\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            return readAll(socket);
+        }
+    }
+
+    @Test
+    void sessionIsPlayedOverTcp() throws IOException {
+        String received = play("name");
+        assertTrue(received.contains("Enter your username: "));
+        assertTrue(received.contains("Creating new player: name"));
+        assertTrue(received.contains("Cyphertext: "));
+        assertTrue(received.contains("Goodbye"));
+    }
+
+    @Test
+    void linesSplitAcrossPacketsAreJoined() throws Exception {
+        try (Socket socket = connect()) {
+            OutputStream out = socket.getOutputStream();
+            for (String part : new String[]{"na", "me\r\nL", "\n", "6\r\n"}) {
+                out.write(part.getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                Thread.sleep(20);
+            }
+            String received = readAll(socket);
+            assertTrue(received.contains("Creating new player: name"));
+            assertTrue(received.contains("Goodbye"));
+        }
+    }
+
+    @Test
+    void idleConnectionsDoNotNeedAThreadEach() throws Exception {
+        List<Socket> idle = new ArrayList<>();
+        try {
+            for (int i = 0; i < 100; i++) {
+                Socket socket = connect();
+                socket.setSoTimeout(10000);
+                byte[] prompt = new byte[64];
+                assertTrue(socket.getInputStream().read(prompt) > 0); // every connection is greeted
+                idle.add(socket);
+            }
+            assertTrue(play("active").contains("Goodbye")); // still served with two workers
+        } finally {
+            for (Socket socket : idle) {
+                socket.close();
+            }
+        }
+    }
+
+    private static byte[] pipelinedMoves(int count) {
+        StringBuilder lines = new StringBuilder("name\nL\n");
+        for (int i = 0; i < count; i++) {
+            lines.append("x\n"); // an invalid choice, answered with the whole menu
+        }
+        return lines.append("6\n").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void clientThatDoesNotReadIsNotBufferedWithoutLimit() throws Exception {
+        try (Socket socket = connect()) {
+            byte[] lines = pipelinedMoves(10_000_000); // 20MB, more than the sockets can buffer
+            Thread sender = new Thread(() -> {
+                try {
+                    socket.getOutputStream().write(lines);
+                } catch (IOException e) {
+                    // closed by the test once the server stopped reading
+                }
+            });
+            sender.start();
+
+            long previous = -1;
+            for (int i = 0; i < 10 && previous != server.getUnwrittenBytes(); i++) { // wait until the server stops
+                previous = server.getUnwrittenBytes();
+                Thread.sleep(500);
+            }
+            assertTrue(previous < 2 * NioSessionServer.MAX_OUTPUT_BYTES, previous + " bytes unwritten");
+            assertTrue(sender.isAlive()); // the server stopped reading too
+        }
+    }
+
+    @Test
+    void pipelinedLinesAreAllAnsweredOnceRead() throws Exception {
+        try (Socket socket = connect()) {
+            socket.getOutputStream().write(pipelinedMoves(2_000));
+            Thread.sleep(500); // let output back up
+            String received = readAll(socket);
+
+            int answered = 0;
+            for (int i = received.indexOf("invalid option chosen"); i >= 0; i = received.indexOf("invalid option chosen", i + 1)) {
+                answered++;
+            }
+            assertEquals(2_000, answered);
+            assertTrue(received.endsWith("################################\n\n"));
+        }
+        assertEquals(0, server.getUnwrittenBytes());
+    }
+
+    @Test
+    void outputOfAClientThatHangsUpIsDiscarded() throws Exception {
+        try (Socket socket = connect()) {
+            socket.getOutputStream().write(pipelinedMoves(20_000)); // more output than the sockets can buffer
+            socket.getInputStream().read(new byte[100]); // part of a response, then gone
+            Thread.sleep(500); // until the server is stuck partway through a response
+            socket.setSoLinger(true, 0); // reset rather than a clean close
+        }
+
+        for (int i = 0; i < 100 && server.getUnwrittenBytes() != 0; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(0, server.getUnwrittenBytes());
+    }
+
+    @Test
+    void concurrentSessionsShareThePlayerStore() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                String username = "player" + (i % 4);
+                results.add(clients.submit(() -> play(username)));
+            }
+            for (Future<String> result : results) {
+                assertTrue(result.get(30, TimeUnit.SECONDS).contains("Goodbye"));
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(8, services.findPlayer("player" + i).getNumCryptogramsPlayed());
+        }
+    }
+}
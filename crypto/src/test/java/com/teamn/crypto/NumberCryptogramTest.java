@@ -49,4 +49,17 @@ class NumberCryptogramTest {
         assertTrue(alphabet.contains("0"));
         assertFalse(alphabet.contains("-1"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void symbolIndexMatchesAlphabet() {
+        List<String> alphabet = cg.getAlphabet();
+        for(int i = 0; i < alphabet.size(); i++){
+            assertEquals(i, cg.getSymbolIndex(alphabet.get(i)));
+        }
+        assertEquals(-1, cg.getSymbolIndex("26"));
+        assertEquals(-1, cg.getSymbolIndex("01"));
+        assertEquals(-1, cg.getSymbolIndex("-1"));
+        assertEquals(-1, cg.getSymbolIndex("A"));
+        assertEquals(-1, cg.getSymbolIndex(null));
+    }
+}
@@ -0,0 +1,137 @@
+package com.teamn.crypto;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the PhraseIndex class
+ */
+class PhraseIndexTest {
+
+    @TempDir
+    Path dir;
+
+    private Path writeCorpus(String contents) throws IOException {
+        Path corpus = dir.resolve("sentences");
+        Files.write(corpus, contents.getBytes(StandardCharsets.UTF_8));
+        return corpus;
+    }
+
+    @Test
+    void readsEveryLine() throws IOException {
+        PhraseIndex index = PhraseIndex.open(writeCorpus("first line\nsecond line\r\n\nlast line"));
+
+        assertEquals(4, index.getLineCount());
+        assertEquals("first line", index.readLine(0));
+        assertEquals("second line", index.readLine(1));
+        assertEquals("", index.readLine(2));
+        assertEquals("last line", index.readLine(3));
+    }
+
+    @Test
+    void trailingNewlineDoesNotAddALine() throws IOException {
+        PhraseIndex index = PhraseIndex.open(writeCorpus("one\ntwo\n"));
+        assertEquals(2, index.getLineCount());
+        assertEquals("two", index.readLine(1));
+    }
+
+    @Test
+    void emptyCorpusHasNoLines() throws IOException {
+        assertEquals(0, PhraseIndex.open(writeCorpus("")).getLineCount());
+    }
+
+    @Test
+    void sidecarIsPersistedAndReused() throws IOException {
+        Path corpus = writeCorpus("one\ntwo\nthree");
+        PhraseIndex.open(corpus);
+
+        Path sidecar = PhraseIndex.sidecarFor(corpus);
+        assertTrue(Files.exists(sidecar));
+        FileTime built = Files.getLastModifiedTime(sidecar);
+
+        assertEquals("three", PhraseIndex.open(corpus).readLine(2));
+        assertEquals(built, Files.getLastModifiedTime(sidecar));
+    }
+
+    @Test
+    void sidecarIsRebuiltWhenCorpusChanges() throws IOException {
+        Path corpus = writeCorpus("one\ntwo");
+        PhraseIndex.open(corpus);
+
+        writeCorpus("alpha\nbeta\ngamma");
+        PhraseIndex index = PhraseIndex.open(corpus);
+        assertEquals(3, index.getLineCount());
+        assertEquals("gamma", index.readLine(2));
+    }
+
+    @Test
+    void lineEndingsMatchBufferedReader() throws IOException {
+        String contents = "mac\rdos\r\nunix\n\r\rlast\r";
+        PhraseIndex index = PhraseIndex.open(writeCorpus(contents));
+
+        List<String> expected = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new StringReader(contents))) {
+            String line;
+            while ((line = reader.readLine()) != null) expected.add(line);
+        }
+        assertEquals(expected.size(), index.getLineCount());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), index.readLine(i));
+        }
+    }
+
+    @Test
+    void sharedIndexIsOpenedOncePerCorpus() throws IOException {
+        Path corpus = writeCorpus("first\nsecond\n");
+        PhraseIndex index = PhraseIndex.shared(corpus);
+        assertSame(index, PhraseIndex.shared(dir.resolve(".").resolve("sentences")));
+
+        Files.write(corpus, "first\nsecond\nthird\n".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(corpus, FileTime.fromMillis(Files.getLastModifiedTime(corpus).toMillis() + 2000));
+        PhraseIndex changed = PhraseIndex.shared(corpus);
+        assertNotSame(index, changed);
+        assertEquals(3, changed.getLineCount());
+        assertSame(changed, PhraseIndex.shared(corpus));
+    }
+
+    @Test
+    void interruptedReaderDoesNotBreakTheIndexForOthers() throws Exception {
+        PhraseIndex index = PhraseIndex.open(writeCorpus("first\nsecond\n"));
+        assertEquals("first", index.readLine(0));
+
+        Thread interrupted = new Thread(() -> {
+            Thread.currentThread().interrupt();
+            assertThrows(IOException.class, () -> index.readLine(1)); // closes the channel
+        });
+        interrupted.start();
+        interrupted.join();
+
+        assertEquals("second", index.readLine(1));
+    }
+
+    @Test
+    void readsManyLinesFromOneOpenIndex() throws IOException {
+        StringBuilder contents = new StringBuilder();
+        for (int i = 0; i < 1000; i++) contents.append("line ").append(i).append('\n');
+        Path corpus = writeCorpus(contents.toString());
+        PhraseIndex.open(corpus).close();
+
+        try (PhraseIndex index = PhraseIndex.open(corpus)) { // offsets mapped from the sidecar
+            for (int i = 999; i >= 0; i -= 7) {
+                assertEquals("line " + i, index.readLine(i));
+            }
+        }
+    }
+}
@@ -3,6 +3,13 @@ package com.teamn.crypto;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -46,4 +53,46 @@ class PhraseRetrieverTest {
 
         assertTrue(numberOfTimesEqual < RUNS);
     }
-}
\ No newline at end of file
+
+    /**
+     * Test retrievers created together, e.g. by concurrent sessions, don't all pick alike
+     */
+    @Test
+    void testRetrieversCreatedTogetherPickIndependently() {
+        final int RUNS = 100;
+        Set<String> firstPicks = new HashSet<>();
+
+        PhraseRetriever[] retrievers = new PhraseRetriever[RUNS];
+        for(int i = 0; i < RUNS; i++) {
+            retrievers[i] = new PhraseRetriever("sentences"); // mostly within the same millisecond
+        }
+        for(PhraseRetriever retriever : retrievers) {
+            firstPicks.add(retriever.getRandomPhrase());
+        }
+
+        assertTrue(firstPicks.size() > 8);
+    }
+
+    /**
+     * Test a one-shot stream is sampled and every line can be picked
+     */
+    @Test
+    void testStreamIsSampledUniformly() {
+        final int RUNS = 200;
+        Set<String> seen = new HashSet<>();
+
+        for(int i = 0; i < RUNS; i++) {
+            InputStream in = new ByteArrayInputStream("one\ntwo\nthree\n".getBytes(StandardCharsets.UTF_8));
+            seen.add(new PhraseRetriever(in).getRandomPhrase());
+        }
+
+        assertEquals(new HashSet<>(Arrays.asList("ONE", "TWO", "THREE")), seen);
+    }
+
+    @Test
+    void testCryptogramFromStream() {
+        InputStream in = new ByteArrayInputStream("tes".getBytes(StandardCharsets.UTF_8));
+        Cryptogram cr = new LetterCryptogram(new PhraseRetriever(in));
+        assertEquals("TES", cr.getPhrase());
+    }
+}
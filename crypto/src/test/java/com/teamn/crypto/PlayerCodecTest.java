@@ -0,0 +1,57 @@
+package com.teamn.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the PlayerCodec and VarInts classes
+ */
+class PlayerCodecTest {
+
+    @Test
+    void playerRoundTrips() throws IOException {
+        Player player = new Player("name", 300, 70000, 5, Integer.MAX_VALUE);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new PlayerCodec().write(player, new DataOutputStream(bytes));
+
+        Player loaded = new PlayerCodec().read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals("name", loaded.getUsername());
+        assertEquals(300, loaded.correctGuesses);
+        assertEquals(70000, loaded.totalGuesses);
+        assertEquals(5, loaded.getNumCryptogramsPlayed());
+        assertEquals(Integer.MAX_VALUE, loaded.getNumCryptogramsSolved());
+    }
+
+    @Test
+    void newPlayerIsSmall() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new PlayerCodec().write(new Player("name"), new DataOutputStream(bytes));
+        assertEquals(1 + 2 + 4 + 4, bytes.size());
+    }
+
+    @Test
+    void varIntsRoundTrip() throws IOException {
+        int[] values = {0, 1, 127, 128, 16383, 16384, 1 << 28, Integer.MAX_VALUE};
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (int value : values) {
+            VarInts.write(out, value);
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        for (int value : values) {
+            assertEquals(value, VarInts.read(in));
+        }
+        assertEquals(-1, in.read());
+    }
+
+    @Test
+    void malformedVarIntIsRejected() {
+        byte[] bytes = {(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x01};
+        assertThrows(IOException.class, () -> VarInts.read(new DataInputStream(new ByteArrayInputStream(bytes))));
+        assertThrows(IllegalArgumentException.class, () -> VarInts.write(new DataOutputStream(new ByteArrayOutputStream()), -1));
+    }
+}
@@ -0,0 +1,277 @@
+package com.teamn.crypto;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the PlayerStore class
+ */
+class PlayerStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private Player find(List<Player> players, String username) {
+        for (Player p : players) {
+            if (p.getUsername().equals(username)) return p;
+        } return null;
+    }
+
+    @Test
+    void playersSurviveClose() throws IOException {
+        PlayerStore store = PlayerStore.open(dir.resolve("players"));
+        Player player = new Player("alice");
+        store.add(player);
+        player.incrementCryptogramsPlayed();
+        player.updateAccuracy(true);
+        store.close();
+
+        Player loaded = find(PlayerStore.open(dir.resolve("players")).getPlayers(), "alice");
+        assertNotNull(loaded);
+        assertEquals(1, loaded.getNumCryptogramsPlayed());
+        assertEquals(1, loaded.totalGuesses);
+        assertEquals(1, loaded.correctGuesses);
+    }
+
+    @Test
+    void changesSurviveACrash() throws IOException {
+        PlayerStore store = PlayerStore.open(dir.resolve("players"));
+        Player player = new Player("bob");
+        store.add(player);
+        player.incrementCryptogramsPlayed();
+        player.incrementCryptogramsSolved();
+        store.flush();
+        // never closed, so only the log holds the changes
+
+        Player loaded = find(PlayerStore.open(dir.resolve("players")).getPlayers(), "bob");
+        assertNotNull(loaded);
+        assertEquals(1, loaded.getNumCryptogramsPlayed());
+        assertEquals(1, loaded.getNumCryptogramsSolved());
+    }
+
+    @Test
+    void tornRecordAtTheEndOfTheLogIsIgnored() throws IOException {
+        PlayerStore store = PlayerStore.open(dir.resolve("players"));
+        Player player = new Player("carol");
+        store.add(player);
+        store.flush();
+        player.incrementCryptogramsPlayed();
+        store.flush();
+
+        try (FileChannel log = FileChannel.open(dir.resolve("players.log"), StandardOpenOption.WRITE)) {
+            log.truncate(log.size() - 3);
+        }
+
+        Player loaded = find(PlayerStore.open(dir.resolve("players")).getPlayers(), "carol");
+        assertNotNull(loaded);
+        assertEquals(0, loaded.getNumCryptogramsPlayed());
+    }
+
+    @Test
+    void changesAfterATornRecordSurviveASecondCrash() throws IOException {
+        PlayerStore store = PlayerStore.open(dir.resolve("players"));
+        Player player = new Player("carol");
+        store.add(player);
+        store.flush();
+        player.incrementCryptogramsPlayed();
+        store.flush();
+        try (FileChannel log = FileChannel.open(dir.resolve("players.log"), StandardOpenOption.WRITE)) {
+            log.truncate(log.size() - 3); // first crash, part way through a record
+        }
+
+        PlayerStore reopened = PlayerStore.open(dir.resolve("players"));
+        Player restarted = reopened.get("carol");
+        for (int i = 0; i < 5; i++) {
+            restarted.updateAccuracy(true);
+        }
+        reopened.flush();
+        // second crash, never closed
+
+        Player loaded = PlayerStore.open(dir.resolve("players")).get("carol");
+        assertEquals(0, loaded.getNumCryptogramsPlayed());
+        assertEquals(5, loaded.correctGuesses);
+    }
+
+    @Test
+    void logIsCompactedPastTheThreshold() throws IOException {
+        PlayerStore store = PlayerStore.open(dir.resolve("players"), 4);
+        Player player = new Player("dave");
+        store.add(player);
+        for (int i = 0; i < 10; i++) {
+            player.updateAccuracy(false);
+            store.flush(); // a record each
+        }
+        store.close();
+
+        assertTrue(Files.size(dir.resolve("players.log")) < 5 * 64);
+        assertEquals(10, find(PlayerStore.open(dir.resolve("players")).getPlayers(), "dave").totalGuesses);
+    }
+
+    @Test
+    void closeLeavesASmallLogToBeReplayed() throws IOException {
+        PlayerStore store = PlayerStore.open(dir.resolve("players"));
+        store.add(new Player("alice"));
+        store.close();
+        long snapshotSize = Files.size(dir.resolve("players.snapshot"));
+
+        PlayerStore reopened = PlayerStore.open(dir.resolve("players"));
+        reopened.get("alice").incrementCryptogramsPlayed();
+        reopened.close();
+
+        assertTrue(Files.size(dir.resolve("players.log")) > 0); // not compacted on close
+        assertEquals(snapshotSize, Files.size(dir.resolve("players.snapshot")));
+        assertEquals(1, PlayerStore.open(dir.resolve("players")).get("alice").getNumCryptogramsPlayed());
+    }
+
+    @Test
+    void changesDuringCompactionAreKept() throws Exception {
+        PlayerStore store = PlayerStore.open(dir.resolve("players"), 8);
+        for (int i = 0; i < 50; i++) {
+            store.add(new Player("old" + i));
+        }
+        store.close();
+
+        PlayerStore reopened = PlayerStore.open(dir.resolve("players"), 8); // compacts every few batches
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int first = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    for (int i = first; i < 50; i += threads.length) {
+                        reopened.get("old" + i).incrementCryptogramsPlayed();
+                        reopened.add(new Player("new" + i));
+                        reopened.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+        reopened.flush();
+        // crash, never closed
+
+        PlayerStore recovered = PlayerStore.open(dir.resolve("players"));
+        for (int i = 0; i < 50; i++) {
+            assertEquals(1, recovered.get("old" + i).getNumCryptogramsPlayed());
+            assertNotNull(recovered.get("new" + i));
+        }
+        assertEquals(100, recovered.getPlayers().size());
+    }
+
+    @Test
+    void concurrentChangesAreGroupCommitted() throws Exception {
+        PlayerStore store = PlayerStore.open(dir.resolve("players"));
+        Player[] players = new Player[4];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new Player("player" + i);
+            store.add(players[i]);
+        }
+
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            Player player = players[t % players.length];
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 200; i++) player.updateAccuracy(true);
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+        store.flush();
+        long logSize = Files.size(dir.resolve("players.log"));
+        // crash, never closed
+
+        PlayerStore reopened = PlayerStore.open(dir.resolve("players"));
+        for (int i = 0; i < players.length; i++) {
+            assertEquals(400, reopened.get("player" + i).correctGuesses);
+        }
+        assertTrue(logSize < 1600 * 20, "changes to the same player share records");
+    }
+
+    /**
+     * legacy/players.txt was written by the original game, which saved an ArrayList of
+     * players with Java serialization
+     */
+    @Test
+    void legacyPlayersFileIsImported() throws Exception {
+        Files.copy(Paths.get(getClass().getClassLoader().getResource("legacy/players.txt").toURI()), dir.resolve("players.txt"));
+
+        PlayerStore store = PlayerStore.open(dir.resolve("players"));
+        Player erin = store.get("erin");
+        assertEquals(2, erin.getNumCryptogramsPlayed());
+        assertEquals(1, erin.getNumCryptogramsSolved());
+        assertEquals(2, erin.correctGuesses);
+        assertEquals(3, erin.totalGuesses);
+        assertEquals(1, store.get("frank").getNumCryptogramsPlayed());
+        assertTrue(Files.exists(dir.resolve("players.snapshot")));
+
+        erin.incrementCryptogramsSolved(); // imported players are recorded like any other
+        store.close();
+        assertEquals(2, PlayerStore.open(dir.resolve("players")).get("erin").getNumCryptogramsSolved());
+    }
+
+    @Test
+    void corruptSnapshotIsReported() throws IOException {
+        Files.write(dir.resolve("players.snapshot"), new byte[] {1, 2, 3, 4, 5});
+        assertThrows(IOException.class, () -> PlayerStore.open(dir.resolve("players")));
+        assertTrue(PlayerStore.recreate(dir.resolve("players")).getPlayers().isEmpty());
+    }
+
+    @Test
+    void playersAreLookedUpByUsername() throws IOException {
+        PlayerStore store = PlayerStore.open(dir.resolve("players"));
+        for (int i = 0; i < 100; i++) {
+            Player player = new Player("player" + i);
+            store.add(player);
+            for (int j = 0; j < i; j++) player.incrementCryptogramsPlayed();
+        }
+        store.close();
+
+        PlayerStore reopened = PlayerStore.open(dir.resolve("players"));
+        assertEquals(42, reopened.get("player42").getNumCryptogramsPlayed());
+        assertSame(reopened.get("player42"), reopened.get("player42"));
+        assertNull(reopened.get("nobody"));
+        assertEquals(100, reopened.getPlayers().size());
+        assertSame(reopened.get("player7"), find(reopened.getPlayers(), "player7"));
+    }
+
+    @Test
+    void changesToLookedUpPlayersArePersisted() throws IOException {
+        PlayerStore store = PlayerStore.open(dir.resolve("players"));
+        store.add(new Player("alice"));
+        store.add(new Player("bob"));
+        store.close();
+
+        PlayerStore reopened = PlayerStore.open(dir.resolve("players"));
+        reopened.get("bob").incrementCryptogramsSolved();
+        reopened.close();
+
+        PlayerStore last = PlayerStore.open(dir.resolve("players"));
+        assertEquals(1, last.get("bob").getNumCryptogramsSolved());
+        assertEquals(0, last.get("alice").getNumCryptogramsSolved());
+        assertEquals("alice", last.getPlayers().get(0).getUsername());
+    }
+
+    @Test
+    void emptinessIsKnownWithoutReadingPlayers() throws IOException {
+        PlayerStore store = PlayerStore.open(dir.resolve("players"));
+        assertTrue(store.isEmpty());
+        store.add(new Player("alice"));
+        assertFalse(store.isEmpty());
+        store.close();
+
+        assertFalse(PlayerStore.open(dir.resolve("players")).isEmpty());
+    }
+}
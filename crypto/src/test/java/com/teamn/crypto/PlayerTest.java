@@ -54,4 +54,23 @@ class PlayerTest {
 
         assertEquals(0, accuracy);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Counters are not lost when updated from several threads")
+    void concurrentUpdates() throws InterruptedException {
+        Thread[] threads = new Thread[4];
+        for(int t = 0; t < threads.length; t++){
+            threads[t] = new Thread(() -> {
+                for(int i = 0; i < 10000; i++){
+                    player.incrementCryptogramsPlayed();
+                    player.updateAccuracy(i % 2 == 0);
+                }
+            });
+            threads[t].start();
+        }
+        for(Thread t: threads) t.join();
+
+        assertEquals(40000, player.getNumCryptogramsPlayed());
+        assertEquals(0.5, player.getGuessAccuracy());
+    }
+}
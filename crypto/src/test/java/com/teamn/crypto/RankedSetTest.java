@@ -0,0 +1,51 @@
+package com.teamn.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the RankedSet class against a TreeSet
+ */
+class RankedSetTest {
+
+    @Test
+    void matchesTreeSet() {
+        Random rand = new Random(42);
+        RankedSet<Integer> set = new RankedSet<>(Comparator.naturalOrder());
+        TreeSet<Integer> expected = new TreeSet<>();
+
+        for (int i = 0; i < 5000; i++) {
+            int value = rand.nextInt(500);
+            if (rand.nextBoolean()) {
+                assertEquals(expected.add(value), set.add(value));
+            } else {
+                assertEquals(expected.remove(value), set.remove(value));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+
+        List<Integer> ordered = new ArrayList<>(expected);
+        for (int rank = 0; rank < ordered.size(); rank++) {
+            assertEquals(ordered.get(rank), set.get(rank));
+            assertEquals(rank, set.rankOf(ordered.get(rank)));
+        }
+        assertEquals(ordered.subList(0, 10), set.first(10));
+        assertEquals(ordered, set.first(ordered.size() + 10));
+        assertEquals(-1, set.rankOf(1000));
+    }
+
+    @Test
+    void getOutOfRange() {
+        RankedSet<Integer> set = new RankedSet<>(Comparator.naturalOrder());
+        set.add(1);
+        assertThrows(IndexOutOfBoundsException.class, () -> set.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> set.get(-1));
+    }
+}
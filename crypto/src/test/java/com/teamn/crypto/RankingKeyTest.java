@@ -0,0 +1,44 @@
+package com.teamn.crypto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankingKeyTest {
+
+    @Test
+    @DisplayName("Proportions are compared exactly rather than as whole percentages")
+    void exactProportions(){
+        assertTrue(new RankingKey(1, 3, "a").compareTo(new RankingKey(33, 100, "a")) > 0);
+        assertTrue(new RankingKey(333, 1000, "a").compareTo(new RankingKey(1, 3, "a")) < 0);
+    }
+
+    @Test
+    @DisplayName("Equal proportions are ranked by games played and then username")
+    void tieBreakers(){
+        assertTrue(new RankingKey(2, 4, "b").compareTo(new RankingKey(1, 2, "a")) > 0);
+        assertTrue(new RankingKey(1, 2, "a").compareTo(new RankingKey(1, 2, "b")) > 0);
+        assertEquals(0, new RankingKey(1, 2, "a").compareTo(new RankingKey(1, 2, "a")));
+    }
+
+    @Test
+    @DisplayName("A player who hasn't played counts as having solved none")
+    void noGamesPlayed(){
+        assertTrue(new RankingKey(0, 0, "a").compareTo(new RankingKey(1, 5, "a")) < 0);
+        assertTrue(new RankingKey(0, 0, "a").compareTo(new RankingKey(0, 5, "a")) < 0);
+    }
+
+    @Test
+    @DisplayName("The player's key follows their statistics")
+    void playerKey(){
+        Player player = new Player("name");
+        RankingKey before = player.getRankingKey();
+        assertSame(before, player.getRankingKey());
+
+        player.incrementCryptogramsPlayed();
+        assertEquals(new RankingKey(0, 1, "name"), player.getRankingKey());
+        player.incrementCryptogramsSolved();
+        assertEquals(new RankingKey(1, 1, "name"), player.getRankingKey());
+    }
+}
@@ -0,0 +1,70 @@
+package com.teamn.crypto;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the SaveFile class
+ */
+class SaveFileTest {
+
+    @TempDir
+    Path dir;
+
+    private final byte[] PAYLOAD = "a saved game".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void payloadRoundTrips() throws IOException {
+        Path file = dir.resolve("name.txt");
+        SaveFile.write(file, PAYLOAD);
+
+        assertArrayEquals(PAYLOAD, SaveFile.read(file));
+        assertEquals(SaveFile.HEADER_BYTES + PAYLOAD.length, Files.size(file));
+        assertTrue(SaveFile.hasHeader(Files.readAllBytes(file)));
+    }
+
+    @Test
+    void existingFileIsReplacedAndNoTemporaryFileIsLeft() throws IOException {
+        Path file = dir.resolve("name.txt");
+        SaveFile.write(file, new byte[] {1, 2, 3});
+        SaveFile.write(file, PAYLOAD);
+
+        assertArrayEquals(PAYLOAD, SaveFile.read(file));
+        assertEquals(1, Files.list(dir).count());
+    }
+
+    @Test
+    void truncatedFileIsDetected() throws IOException {
+        Path file = dir.resolve("name.txt");
+        SaveFile.write(file, PAYLOAD);
+        byte[] contents = Files.readAllBytes(file);
+        byte[] truncated = new byte[contents.length - 1];
+        System.arraycopy(contents, 0, truncated, 0, truncated.length);
+
+        assertThrows(IOException.class, () -> SaveFile.verify(truncated));
+    }
+
+    @Test
+    void damagedPayloadIsDetected() throws IOException {
+        Path file = dir.resolve("name.txt");
+        SaveFile.write(file, PAYLOAD);
+        byte[] contents = Files.readAllBytes(file);
+        contents[contents.length - 1] ^= 1;
+        Files.write(file, contents);
+
+        assertThrows(IOException.class, () -> SaveFile.read(file));
+    }
+
+    @Test
+    void fileWithoutHeaderIsRejected() {
+        assertFalse(SaveFile.hasHeader(PAYLOAD));
+        assertThrows(IOException.class, () -> SaveFile.verify(PAYLOAD));
+    }
+}
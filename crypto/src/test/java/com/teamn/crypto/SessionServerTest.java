@@ -0,0 +1,177 @@
+package com.teamn.crypto;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the SessionServer class
+ */
+class SessionServerTest {
+
+    @TempDir
+    Path dir;
+
+    private GameServices services;
+    private SessionServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        services = new GameServices(dir, "testsentences");
+        server = new SessionServer(services, 0, 16); // two per client: one may still be finishing its last session
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.close();
+        services.close();
+    }
+
+    /**
+     * Plays a short game over a connection
+     * @return everything the server sent
+     */
+    private String play(String username) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+             Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+             Reader in = new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8)) {
+            out.write(username + "\nL\n6\n");
+            out.flush();
+
+            StringBuilder received = new StringBuilder();
+            char[] buffer = new char[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                received.append(buffer, 0, read);
+            }
+            return received.toString();
+        }
+    }
+
+    @Test
+    void sessionIsPlayedOverTcp() throws IOException {
+        String received = play("name");
+        assertTrue(received.contains("Enter your username: "));
+        assertTrue(received.contains("Creating new player: name"));
+        assertTrue(received.contains("Cyphertext: "));
+        assertTrue(received.contains("Goodbye"));
+    }
+
+    @Test
+    void concurrentSessionsShareThePlayerStore() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                String username = "player" + (i % 4);
+                results.add(clients.submit(() -> play(username)));
+            }
+            for (Future<String> result : results) {
+                assertTrue(result.get(30, TimeUnit.SECONDS).contains("Goodbye"));
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(8, services.findPlayer("player" + i).getNumCryptogramsPlayed());
+        }
+    }
+
+    private static String readAll(Socket socket) throws IOException {
+        Reader in = new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8);
+        StringBuilder received = new StringBuilder();
+        char[] buffer = new char[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            received.append(buffer, 0, read);
+        }
+        return received.toString();
+    }
+
+    private static String readPrompt(Socket socket) throws IOException {
+        InputStream in = socket.getInputStream();
+        StringBuilder received = new StringBuilder();
+        while (!received.toString().endsWith("Enter your username: ")) {
+            int b = in.read();
+            if (b == -1) break;
+            received.append((char) b);
+        }
+        return received.toString();
+    }
+
+    @Test
+    void excessConnectionsAreRefused() throws IOException {
+        server.close();
+        server = new SessionServer(services, 0, 1);
+        Assumptions.assumeTrue(SessionServer.newSessionExecutor(1) instanceof ThreadPoolExecutor, "virtual threads are not bounded");
+
+        try (Socket first = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+             Socket second = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            first.setSoTimeout(10_000);
+            second.setSoTimeout(10_000);
+            assertTrue(readPrompt(first).endsWith("Enter your username: "));
+            assertTrue(readAll(second).contains("The server is busy"));
+        }
+    }
+
+    @Test
+    void closeEndsConnectedSessions() throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            socket.setSoTimeout(10_000);
+            readPrompt(socket);
+            server.close();
+            assertEquals("", readAll(socket));
+        }
+        // the shared player store is still usable
+        assertEquals("name", services.createPlayer("name").getUsername());
+    }
+
+    @Test
+    void overlongLineEndsTheSession() throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            socket.setSoTimeout(10_000);
+            readPrompt(socket);
+            byte[] line = new byte[SessionServer.MAX_LINE_BYTES + 1];
+            Arrays.fill(line, (byte) 'a');
+            socket.getOutputStream().write(line);
+            assertEquals("", readAll(socket));
+        }
+    }
+
+    @Test
+    void linesEndWithNewlineOrCarriageReturnNewline() throws IOException {
+        InputStream in = new ByteArrayInputStream("one\r\ntwo\n\nlast".getBytes(StandardCharsets.UTF_8));
+        assertEquals("one", SessionServer.readLine(in));
+        assertEquals("two", SessionServer.readLine(in));
+        assertEquals("", SessionServer.readLine(in));
+        assertEquals("last", SessionServer.readLine(in));
+        assertNull(SessionServer.readLine(in));
+    }
+
+    @Test
+    void executorFallsBackToABoundedPool() {
+        ExecutorService executor = SessionServer.newSessionExecutor(3);
+        try {
+            if (executor instanceof ThreadPoolExecutor) {
+                assertEquals(3, ((ThreadPoolExecutor) executor).getMaximumPoolSize());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
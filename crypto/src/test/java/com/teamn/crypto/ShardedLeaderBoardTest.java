@@ -0,0 +1,69 @@
+package com.teamn.crypto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedLeaderBoardTest {
+
+    @Test
+    @DisplayName("Concurrent stat updates produce the same board as ranking the players afterwards")
+    void concurrentUpdates() throws InterruptedException {
+        ShardedLeaderBoard sharded = new ShardedLeaderBoard(10, 4);
+        List<Player> players = new ArrayList<>();
+        for(int i = 0; i < 100; i++){
+            Player p = new Player("player" + i);
+            players.add(p);
+            sharded.add(p);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for(int t = 0; t < 8; t++){
+            final int seed = t;
+            pool.execute(() -> {
+                for(int i = 0; i < 1000; i++){
+                    Player p = players.get((seed * 31 + i * 7) % players.size());
+                    p.incrementCryptogramsPlayed();
+                    if((i + seed) % 3 == 0) p.incrementCryptogramsSolved();
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        LeaderBoard expected = new LeaderBoard(10, players);
+        expected.update();
+        sharded.update();
+
+        assertArrayEquals(expected.getBoard(), sharded.getBoard());
+        for(int i = 0; i < 10; i++){
+            assertEquals(i + 1, sharded.getRank(expected.getBoard()[i]));
+        }
+    }
+
+    @Test
+    @DisplayName("Removed players are no longer ranked")
+    void removePlayer(){
+        ShardedLeaderBoard sharded = new ShardedLeaderBoard(3, 2);
+        Player p1 = new Player("player1");
+        Player p2 = new Player("player2");
+        sharded.add(p1);
+        sharded.add(p2);
+        p2.incrementCryptogramsPlayed();
+        p2.incrementCryptogramsSolved();
+
+        assertEquals(1, sharded.getRank(p2));
+        sharded.remove(p2);
+        sharded.update();
+
+        assertEquals(-1, sharded.getRank(p2));
+        assertArrayEquals(new Player[]{p1, null, null}, sharded.getBoard());
+    }
+}